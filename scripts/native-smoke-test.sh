@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+# Builds the native executable (needs GraalVM 22.3+ as JAVA_HOME), smoke tests it against a file-based H2
+# database, then compares its startup time and RSS with the same AOT-processed build on the JVM.
+# Usage: scripts/native-smoke-test.sh        SKIP_BUILD=1 reuses target/pg2 and the jar
+# Not yet run against a real native build: no GraalVM was available, the startup and RSS comparison is still to be done.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PORT=${PORT:-8098}
+WORK=$(mktemp -d)
+BASE="http://localhost:${PORT}/api/PG2"
+APP_PID=""
+
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    echo "Building the native executable"
+    mvn -B -q -Pnative package -DskipTests
+fi
+
+SETTINGS=(-Dserver.port="${PORT}" -Dspring.profiles.active=prod "-Dlogging.level.root=WARN")
+
+# The native profile also leaves the AOT-processed executable jar, which is the JVM side of the comparison
+start_jvm() {
+    local db=$1
+    java "${SETTINGS[@]}" "-Dspring.datasource.url=jdbc:h2:file:${WORK}/${db}/pg" "-Dpg2.journal.dir=${WORK}/${db}/journal" \
+        -Dspring.aot.enabled=true -jar target/PG2-1.0-SNAPSHOT.jar > "${WORK}/app.log" 2>&1 &
+    APP_PID=$!
+}
+
+start_native() {
+    local db=$1
+    target/pg2 "${SETTINGS[@]}" "-Dspring.datasource.url=jdbc:h2:file:${WORK}/${db}/pg" "-Dpg2.journal.dir=${WORK}/${db}/journal" \
+        > "${WORK}/app.log" 2>&1 &
+    APP_PID=$!
+}
+
+stop() {
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=""
+}
+
+wait_for_first_request() {
+    until curl -sf -o /dev/null "${BASE}/rooms"; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            echo "Application exited, see log:" >&2
+            tail -30 "${WORK}/app.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+}
+
+# expect <status> <method> <path> [json body], prints the response body
+expect() {
+    local status=$1 method=$2 path=$3 body=${4:-}
+    local args=(-s -o "${WORK}/body" -w "%{http_code}" -X "$method" "${BASE}${path}")
+    [ -n "$body" ] && args+=(-H "Content-Type: application/json" -d "$body")
+    local actual
+    actual=$(curl "${args[@]}")
+    if [ "$actual" != "$status" ]; then
+        echo "FAIL ${method} ${path}: expected ${status}, got ${actual}: $(cat "${WORK}/body")" >&2
+        tail -30 "${WORK}/app.log" >&2
+        exit 1
+    fi
+    echo "ok   ${method} ${path}" >&2
+    cat "${WORK}/body"
+}
+
+json_field() {
+    sed -E "s/.*\"$1\":([0-9]+).*/\1/"
+}
+
+echo "Smoke testing target/pg2"
+start_native smoke
+wait_for_first_request
+ROOM_ID=$(expect 201 POST /rooms '{"roomNumber":101,"floor":1,"hasAC":true,"isAvailable":true,"rent":4000,"beds":"DOUBLE"}' | json_field roomId)
+expect 200 POST "/rooms/${ROOM_ID}/guests" '{"name":"Asha","age":27,"phoneNumber":"9800000001","dateOfOccupancy":"2024-01-01"}' > /dev/null
+CONTRACT_ID=$(expect 200 POST /payment/rentalContract '{"roomNumber":101,"guestName":"Asha","monthlyRentAmount":4000,"rentDueDate":"2024-02-01"}' | json_field id)
+expect 200 POST /payment/transaction "{\"rentalContract\":{\"id\":${CONTRACT_ID}},\"amount\":4000,\"transactionType\":\"RENT_PAYMENT\"}" > /dev/null
+expect 200 GET /rooms > /dev/null
+expect 200 GET /guests > /dev/null
+expect 200 GET "/payment/rentalContract/${CONTRACT_ID}/transactions" > /dev/null
+expect 201 POST /rooms '{"roomNumber":102,"floor":1,"isAvailable":true,"rent":3000,"beds":"SINGLE"}' > /dev/null
+expect 200 POST /rooms/allocation '{"groupSize":1}' > /dev/null
+expect 200 GET /payment/journal/verify > /dev/null
+grep -q '"mismatchedContractIds":\[\]' "${WORK}/body"
+expect 200 GET /reports/properties > /dev/null
+stop
+
+echo "Restarting on the same database"
+start_native smoke
+wait_for_first_request
+expect 200 GET /rooms > /dev/null
+grep -q '"roomNumber":101' "${WORK}/body"
+stop
+
+# Prints "<milliseconds to first request> <RSS in MB>"
+measure() {
+    local begin end rss_kb
+    begin=$(date +%s%N)
+    "$@"
+    wait_for_first_request
+    end=$(date +%s%N)
+    rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/${APP_PID}/status")
+    stop
+    echo "$(( (end - begin) / 1000000 )) $(( rss_kb / 1024 ))"
+}
+
+printf "%-8s %12s %10s\n" "build" "first req ms" "RSS MB"
+read -r ms mb < <(measure start_jvm jvm)
+printf "%-8s %12d %10d\n" jvm "$ms" "$mb"
+read -r ms mb < <(measure start_native native)
+printf "%-8s %12d %10d\n" native "$ms" "$mb"
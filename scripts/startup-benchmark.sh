@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+# Compares restart time-to-first-request and resident memory of
+#   baseline  default profile (ddl-auto=update, eager beans)
+#   prod      prod profile (pre-built schema + validate, lazy beans)
+#   prod+aot  prod profile with the AOT-generated bean definitions
+#   prod+cds  prod+aot started from an application class-data-sharing archive
+# Usage: scripts/startup-benchmark.sh [runs per variant, default 3]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-3}
+PORT=${PORT:-8097}
+WORK=$(mktemp -d)
+CDS_ARCHIVE=target/pg2-app.jsa
+CLASS_PATH="target/PG2-1.0-SNAPSHOT.jar:target/lib/*"
+URL="http://localhost:${PORT}/api/PG2/rooms"
+APP_PID=""
+
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+echo "Building with the fast-startup profile"
+mvn -B -q package -Pfast-startup -DskipTests
+
+# Every run restarts on the same H2 file database, as a deploy would
+COMMON=(-cp "$CLASS_PATH" "-Dserver.port=${PORT}" "-Dspring.datasource.url=jdbc:h2:file:${WORK}/pg;AUTO_SERVER=TRUE"
+        "-Dpg2.journal.dir=${WORK}/journal" -Dlogging.level.root=WARN)
+PROD=(-Dspring.profiles.active=prod)
+AOT=(-Dspring.aot.enabled=true)
+
+start() {
+    java "${COMMON[@]}" "$@" org.sigar.PGApp > "${WORK}/app.log" 2>&1 &
+    APP_PID=$!
+}
+
+stop() {
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=""
+}
+
+wait_for_first_request() {
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            echo "Application exited, see log:" >&2
+            tail -20 "${WORK}/app.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+}
+
+# Prints "<milliseconds to first request> <RSS in MB>"
+measure() {
+    local begin end rss_kb
+    begin=$(date +%s%N)
+    start "$@"
+    wait_for_first_request
+    end=$(date +%s%N)
+    rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/${APP_PID}/status")
+    stop
+    echo "$(( (end - begin) / 1000000 )) $(( rss_kb / 1024 ))"
+}
+
+report() {
+    local name=$1; shift
+    local total_ms=0 total_mb=0 ms mb
+    for _ in $(seq 1 "$RUNS"); do
+        read -r ms mb < <(measure "$@")
+        total_ms=$((total_ms + ms))
+        total_mb=$((total_mb + mb))
+    done
+    printf "%-10s %12d %10d\n" "$name" $((total_ms / RUNS)) $((total_mb / RUNS))
+}
+
+echo "Creating the database"
+start
+wait_for_first_request
+stop
+
+echo "Recording the CDS archive"
+rm -f "$CDS_ARCHIVE"
+start "${PROD[@]}" "${AOT[@]}" "-XX:ArchiveClassesAtExit=${CDS_ARCHIVE}"
+wait_for_first_request
+stop
+
+printf "%-10s %12s %10s\n" "variant" "first req ms" "RSS MB"
+report baseline
+report prod "${PROD[@]}"
+report prod+aot "${PROD[@]}" "${AOT[@]}"
+report prod+cds "${PROD[@]}" "${AOT[@]}" "-XX:SharedArchiveFile=${CDS_ARCHIVE}"
@@ -1,8 +1,18 @@
 package org.sigar.Constants.enums;
 
 public enum Beds {
-    SINGLE,
-    DOUBLE,
-    TRIPLE,
-    FOUR
+    SINGLE(1),
+    DOUBLE(2),
+    TRIPLE(3),
+    FOUR(4);
+
+    private final int capacity;
+
+    Beds(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
 }
@@ -0,0 +1,19 @@
+package org.sigar.Constants.enums;
+
+public enum MeterType {
+    // kWh
+    ELECTRICITY(TransactionType.ELECTRICITY),
+    // Litres
+    WATER(TransactionType.WATER);
+
+    private final TransactionType transactionType;
+
+    MeterType(TransactionType transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    // Type of the payment transaction a month of consumption is billed as
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+}
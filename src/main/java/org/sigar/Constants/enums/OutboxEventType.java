@@ -0,0 +1,8 @@
+package org.sigar.Constants.enums;
+
+public enum OutboxEventType {
+    GUEST_CHECKED_IN,
+    GUEST_CHECKED_OUT,
+    RENTAL_CONTRACT_CREATED,
+    PAYMENT_RECORDED
+}
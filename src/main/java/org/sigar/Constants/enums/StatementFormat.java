@@ -0,0 +1,8 @@
+package org.sigar.Constants.enums;
+
+public enum StatementFormat {
+    // One text file per contract in a directory named after the month
+    DIRECTORY,
+    // All statements of the month in a single zip archive
+    ZIP
+}
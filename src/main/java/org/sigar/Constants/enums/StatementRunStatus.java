@@ -0,0 +1,8 @@
+package org.sigar.Constants.enums;
+
+public enum StatementRunStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,87 @@
+package org.sigar.configs;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.sigar.service.AdmissionControlService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Set;
+
+// Runs before any other interceptor so shed requests never touch a property database
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admission";
+    // The client a handler charges for work found in the body, see AdmissionControlService.charge
+    public static final String CLIENT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".client";
+
+    private final AdmissionControlService admissionControlService;
+    private final Set<String> trustedProxies;
+    private final String forwardedHeader;
+
+    public AdmissionInterceptor(AdmissionControlService admissionControlService, Collection<String> trustedProxies,
+                                String forwardedHeader) {
+        this.admissionControlService = admissionControlService;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.forwardedHeader = forwardedHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String client = clientOf(request);
+        request.setAttribute(CLIENT_ATTRIBUTE, client);
+        AdmissionControlService.Admission admission =
+                admissionControlService.admit(request.getMethod(), pattern, client);
+        if (!admission.admitted()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Too many requests, retry in " + admission.retryAfterSeconds() + "s");
+            return false;
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, admission);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object admission = request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission != null) {
+            admissionControlService.release((AdmissionControlService.Admission) admission);
+        }
+    }
+
+    // An authenticated user, else the address the request came from. Behind trusted proxies that is the last
+    // forwarded hop not added by one of them, hops further left are whatever the client chose to send.
+    private String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        String forwarded = trustedProxies.contains(address) ? request.getHeader(forwardedHeader) : null;
+        if (forwarded == null) {
+            return address;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            if (!trustedProxies.contains(hop)) {
+                return hop;
+            }
+            address = hop;
+        }
+        return address;
+    }
+}
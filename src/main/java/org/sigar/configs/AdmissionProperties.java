@@ -0,0 +1,45 @@
+package org.sigar.configs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Admission control for /api/PG2/**. Writes share the global bucket and a cap on concurrent writes, reads only
+// pass the limits of a route configured for them, so reads keep getting connections while writes are shed.
+@Data
+@ConfigurationProperties(prefix = "pg2.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // Clients are told apart by remote address. The forwarded header is only believed on requests coming from one
+    // of these proxy addresses, otherwise any client could pick its own identity.
+    private List<String> trustedProxies = new ArrayList<>();
+    private String forwardedHeader = "X-Forwarded-For";
+    // Keep it below the connection pool size (Hikari defaults to 10)
+    private int maxConcurrentWrites = 6;
+    private Limit globalWrites = new Limit(200, 400);
+    private Limit clientWrites = new Limit(20, 40);
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+    }
+
+    @Data
+    public static class Route {
+        private String method;
+        // Handler pattern without the {propertyId} segment, e.g. /api/PG2/rooms/{roomId}/guests
+        private String pattern;
+        // Tokens a request takes from every bucket it passes, raise it for bulk endpoints
+        private int cost = 1;
+        private Limit global;
+        private Limit perClient;
+    }
+}
@@ -0,0 +1,110 @@
+package org.sigar.configs;
+
+import org.sigar.Constants.enums.Beds;
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.Constants.enums.OutboxEventType;
+import org.sigar.Constants.enums.StatementFormat;
+import org.sigar.Constants.enums.StatementRunStatus;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.dto.AdmissionMetricsDTO;
+import org.sigar.dto.ArchiveRunDTO;
+import org.sigar.dto.ArchiveStatusDTO;
+import org.sigar.dto.BulkOperationResultDTO;
+import org.sigar.dto.CoalescingMetricsDTO;
+import org.sigar.dto.CompositeOperationDTO;
+import org.sigar.dto.CompositeOperationResultDTO;
+import org.sigar.dto.CompositeRequestDTO;
+import org.sigar.dto.CompositeResponseDTO;
+import org.sigar.dto.FloorOccupancyDTO;
+import org.sigar.dto.GuestResponseDTO;
+import org.sigar.dto.JournalReplayDTO;
+import org.sigar.dto.JournalVerificationDTO;
+import org.sigar.dto.MeterBillingDTO;
+import org.sigar.dto.MeterConsumptionDTO;
+import org.sigar.dto.MeterIngestResultDTO;
+import org.sigar.dto.MeterReadingDTO;
+import org.sigar.dto.MeterStoreStatsDTO;
+import org.sigar.dto.OccupancyDTO;
+import org.sigar.dto.OutboxMetricsDTO;
+import org.sigar.dto.PaymentTransactionResponseDTO;
+import org.sigar.dto.PropertySummaryDTO;
+import org.sigar.dto.QueryCoalescingMetricsDTO;
+import org.sigar.dto.RentalContractResponseDTO;
+import org.sigar.dto.RoomAllocationRequestDTO;
+import org.sigar.dto.RoomAllocationResponseDTO;
+import org.sigar.dto.RoomResponseDTO;
+import org.sigar.dto.RouteAdmissionMetricsDTO;
+import org.sigar.dto.SqlEndpointProfileDTO;
+import org.sigar.dto.SqlFingerprintProfileDTO;
+import org.sigar.dto.SqlProfileDTO;
+import org.sigar.dto.SqlRequestProfileDTO;
+import org.sigar.dto.SqlStatementProfileDTO;
+import org.sigar.dto.StatementRunDTO;
+import org.sigar.dto.StayDTO;
+import org.sigar.dto.StayOccupancyDTO;
+import org.sigar.dto.TransactionHistoryPageDTO;
+import org.sigar.events.DomainEvent;
+import org.sigar.events.GuestCheckoutPayload;
+import org.sigar.events.RentOverdueEvent;
+import org.sigar.model.ArchivedGuestStay;
+import org.sigar.model.ArchivedPaymentTransaction;
+import org.sigar.model.Guest;
+import org.sigar.model.GuestStay;
+import org.sigar.model.MeterReading;
+import org.sigar.model.OutboxEvent;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.model.RentalContract;
+import org.sigar.model.Room;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reachability metadata for the native image (mvn -Pnative package). Spring's AOT step already covers
+ * controller signatures and JPA managed types, this adds what it cannot see: Jackson (de)serialization of the
+ * entities with their Lombok accessors, DTOs nested in collections, outbox payloads written by ObjectMapper,
+ * and the schema script of the prod profile.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.Registrar.class)
+public class NativeHintsConfig {
+
+    static final Class<?>[] BOUND_TYPES = {
+            Room.class, Guest.class, RentalContract.class, PaymentTransaction.class, OutboxEvent.class, GuestStay.class,
+            ArchivedPaymentTransaction.class, ArchivedGuestStay.class, MeterReading.class,
+            Beds.class, TransactionType.class, OutboxEventType.class, StatementFormat.class, StatementRunStatus.class, MeterType.class,
+            AdmissionMetricsDTO.class, ArchiveRunDTO.class, ArchiveStatusDTO.class, BulkOperationResultDTO.class, CoalescingMetricsDTO.class,
+            CompositeOperationDTO.class, CompositeOperationResultDTO.class, CompositeRequestDTO.class, CompositeResponseDTO.class,
+            FloorOccupancyDTO.class, GuestResponseDTO.class, JournalReplayDTO.class, JournalVerificationDTO.class, MeterBillingDTO.class,
+            MeterConsumptionDTO.class, MeterIngestResultDTO.class, MeterReadingDTO.class, MeterStoreStatsDTO.class, OccupancyDTO.class,
+            OutboxMetricsDTO.class, PaymentTransactionResponseDTO.class,
+            PropertySummaryDTO.class, QueryCoalescingMetricsDTO.class, RentalContractResponseDTO.class, RoomAllocationRequestDTO.class,
+            RoomAllocationResponseDTO.class, RoomResponseDTO.class, RouteAdmissionMetricsDTO.class, SqlEndpointProfileDTO.class,
+            SqlFingerprintProfileDTO.class, SqlProfileDTO.class, SqlRequestProfileDTO.class, SqlStatementProfileDTO.class,
+            StatementRunDTO.class, StayDTO.class, StayOccupancyDTO.class, TransactionHistoryPageDTO.class,
+            DomainEvent.class, GuestCheckoutPayload.class, RentOverdueEvent.class
+    };
+
+    public static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), BOUND_TYPES);
+            hints.resources().registerPattern("db/*.sql");
+            // JDBC wrappers of the SQL profiler
+            hints.proxies().registerJdkProxy(Connection.class);
+            hints.proxies().registerJdkProxy(Statement.class);
+            hints.proxies().registerJdkProxy(PreparedStatement.class);
+            hints.proxies().registerJdkProxy(CallableStatement.class);
+            hints.proxies().registerJdkProxy(ResultSet.class);
+        }
+    }
+}
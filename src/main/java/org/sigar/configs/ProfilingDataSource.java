@@ -0,0 +1,130 @@
+package org.sigar.configs;
+
+import org.sigar.service.SqlProfiler;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Wraps a property pool when the SQL profiler is enabled: statements are timed and result set rows counted
+public class ProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final SqlProfiler profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, SqlProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    // Lets PropertyRoutingDataSource close the pool underneath
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                return statement(statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return statement(statement, null);
+            }
+            return result;
+        });
+    }
+
+    private Statement statement(Statement target, String preparedSql) {
+        Class<? extends Statement> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        String[] batchSql = new String[1];
+        return proxy(type, target, (method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+                batchSql[0] = sql;
+            }
+            if (name.equals("getResultSet")) {
+                ResultSet resultSet = (ResultSet) method.invoke(target, args);
+                return resultSet != null ? resultSet(resultSet, preparedSql) : null;
+            }
+            if (!name.startsWith("execute")) {
+                return method.invoke(target, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : batchSql[0];
+            long start = System.nanoTime();
+            Object result = method.invoke(target, args);
+            profiler.executed(sql, System.nanoTime() - start, updateCount(result, name));
+            return result instanceof ResultSet resultSet ? resultSet(resultSet, sql) : result;
+        });
+    }
+
+    private ResultSet resultSet(ResultSet target, String sql) {
+        long[] rows = new long[1];
+        boolean[] reported = new boolean[1];
+        return proxy(ResultSet.class, target, (method, args) -> {
+            Object result = method.invoke(target, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && !reported[0]) {
+                reported[0] = true;
+                profiler.rowsRead(sql, rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private static long updateCount(Object result, String method) {
+        if (method.startsWith("executeUpdate") || method.startsWith("executeLargeUpdate")) {
+            return ((Number) result).longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Invoker invoker) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    try {
+                        return invoker.invoke(method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    @FunctionalInterface
+    private interface Invoker {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,47 @@
+package org.sigar.configs;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the PG building (property) the current thread works on. Requests under /api/PG2/{propertyId}/...
+ * set it through {@link PropertyInterceptor}, everything else runs against the default property.
+ */
+public final class PropertyContext {
+
+    public static final String DEFAULT_PROPERTY = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private PropertyContext() {
+    }
+
+    public static String current() {
+        String propertyId = CURRENT.get();
+        return propertyId != null ? propertyId : DEFAULT_PROPERTY;
+    }
+
+    public static void set(String propertyId) {
+        CURRENT.set(propertyId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T callIn(String propertyId, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(propertyId);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runIn(String propertyId, Runnable work) {
+        callIn(propertyId, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package org.sigar.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.sigar.service.SqlProfiler;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties({ShardProperties.class, SqlProfilerProperties.class})
+public class PropertyDataSourceConfig {
+
+    @Bean
+    public PropertyRegistry propertyRegistry(ShardProperties shardProperties) {
+        return new PropertyRegistry(shardProperties.getUrls().keySet());
+    }
+
+    @Bean
+    @Primary
+    public PropertyRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ShardProperties shardProperties,
+                                                SqlProfiler sqlProfiler) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(PropertyContext.DEFAULT_PROPERTY, createPool(dataSourceProperties, PropertyContext.DEFAULT_PROPERTY, dataSourceProperties.determineUrl()));
+        shardProperties.getUrls().forEach((propertyId, url) -> shards.put(propertyId, createPool(dataSourceProperties, propertyId, url)));
+        if (sqlProfiler.isEnabled()) {
+            shards.replaceAll((propertyId, pool) -> new ProfilingDataSource(pool, sqlProfiler));
+        }
+        return new PropertyRoutingDataSource(shards);
+    }
+
+    // Used for cross-property reports, each task sets its own PropertyContext
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService propertyReportExecutor(ShardProperties shardProperties) {
+        return Executors.newFixedThreadPool(shardProperties.getReportThreads());
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties dataSourceProperties, String propertyId, String url) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        dataSource.setPoolName("pg2-" + propertyId);
+        return dataSource;
+    }
+}
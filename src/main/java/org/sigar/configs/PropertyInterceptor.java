@@ -0,0 +1,43 @@
+package org.sigar.configs;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Binds the {propertyId} path variable of /api/PG2/{propertyId}/... to the PropertyContext for the request
+public class PropertyInterceptor implements HandlerInterceptor {
+
+    public static final String PROPERTY_ID_VARIABLE = "propertyId";
+
+    private final PropertyRegistry propertyRegistry;
+
+    public PropertyInterceptor(PropertyRegistry propertyRegistry) {
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String propertyId = variables != null ? variables.get(PROPERTY_ID_VARIABLE) : null;
+        if (propertyId == null) {
+            PropertyContext.clear();
+            return true;
+        }
+        if (!propertyRegistry.isKnown(propertyId)) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Property " + propertyId + " not found");
+            return false;
+        }
+        PropertyContext.set(propertyId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PropertyContext.clear();
+    }
+}
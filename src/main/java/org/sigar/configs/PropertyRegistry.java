@@ -0,0 +1,25 @@
+package org.sigar.configs;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class PropertyRegistry {
+
+    private final Set<String> propertyIds;
+
+    public PropertyRegistry(Set<String> extraPropertyIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        ids.add(PropertyContext.DEFAULT_PROPERTY);
+        ids.addAll(extraPropertyIds);
+        this.propertyIds = Collections.unmodifiableSet(ids);
+    }
+
+    public Set<String> getPropertyIds() {
+        return propertyIds;
+    }
+
+    public boolean isKnown(String propertyId) {
+        return propertyIds.contains(propertyId);
+    }
+}
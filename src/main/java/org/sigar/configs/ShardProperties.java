@@ -0,0 +1,15 @@
+package org.sigar.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Each extra property (PG building) gets its own H2 database, the default property keeps spring.datasource.url
+@Data
+@ConfigurationProperties(prefix = "pg2.shards")
+public class ShardProperties {
+    private Map<String, String> urls = new LinkedHashMap<>();
+    private int reportThreads = 4;
+}
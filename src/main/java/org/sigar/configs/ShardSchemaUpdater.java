@@ -0,0 +1,104 @@
+package org.sigar.configs;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hibernate's ddl-auto and Spring's schema scripts only see the default property's database at startup,
+ * so the same schema scripts and update or validation are applied to every other property's database here.
+ */
+@Component
+@Lazy(false)
+public class ShardSchemaUpdater {
+
+    private static final Set<String> SCHEMA_ACTIONS = Set.of("update", "validate");
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaUpdater.class);
+
+    private final PropertyRoutingDataSource routingDataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String ddlAuto;
+    private final List<String> schemaLocations;
+    private final ResourceLoader resourceLoader;
+
+    @Autowired
+    public ShardSchemaUpdater(PropertyRoutingDataSource routingDataSource,
+                              EntityManagerFactory entityManagerFactory,
+                              @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto,
+                              @Value("${spring.sql.init.schema-locations:}") List<String> schemaLocations,
+                              ResourceLoader resourceLoader) {
+        this.routingDataSource = routingDataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.ddlAuto = ddlAuto;
+        this.schemaLocations = schemaLocations;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void updateShards() {
+        routingDataSource.getShards().forEach((propertyId, dataSource) -> {
+            if (!PropertyContext.DEFAULT_PROPERTY.equals(propertyId)) {
+                if (!schemaLocations.isEmpty()) {
+                    logger.info("Applying schema scripts to property {}", propertyId);
+                    applyScripts(dataSource);
+                }
+                if (SCHEMA_ACTIONS.contains(ddlAuto)) {
+                    logger.info("Running schema {} on property {}", ddlAuto, propertyId);
+                    update(dataSource);
+                }
+            }
+        });
+    }
+
+    private void applyScripts(DataSource dataSource) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        schemaLocations.forEach(location -> populator.addScript(resourceLoader.getResource(location)));
+        populator.execute(dataSource);
+    }
+
+    private void update(DataSource dataSource) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, ddlAuto)
+                .build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                sources.addAnnotatedClass(entity.getJavaType());
+            }
+            // Same naming strategies Spring Boot configures for the main persistence unit
+            Metadata metadata = sources.getMetadataBuilder()
+                    .applyPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                    .applyImplicitNamingStrategy(new SpringImplicitNamingStrategy())
+                    .build();
+            SchemaManagementToolCoordinator.process(metadata, registry,
+                    registry.getService(ConfigurationService.class).getSettings(),
+                    DelayedDropRegistryNotAvailableImpl.INSTANCE);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.sigar.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Opt-in SQL profiling: every statement on the property pools is fingerprinted and attributed to the endpoint
+// that ran it. Off by default, the JDBC wrappers are only installed when enabled at startup.
+@Data
+@ConfigurationProperties(prefix = "pg2.profiler")
+public class SqlProfilerProperties {
+    private boolean enabled = false;
+    // Rolling window kept in one-minute buckets
+    private int windowMinutes = 5;
+    private int topN = 20;
+    // Slowest and N+1 requests kept with their statements, per minute
+    private int sampleRequests = 10;
+    // The same select run this many times in one request is reported as an N+1
+    private int repeatedSelectThreshold = 5;
+}
@@ -0,0 +1,34 @@
+package org.sigar.configs;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.sigar.service.SqlProfiler;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Scopes the statements of a request to its endpoint, both property-prefixed routes count as one
+public class SqlProfilingInterceptor implements HandlerInterceptor {
+
+    private final SqlProfiler profiler;
+
+    public SqlProfilingInterceptor(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            profiler.beginRequest(request.getMethod() + " " + (pattern != null ? pattern.replace("/{propertyId}", "") : request.getRequestURI()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (handler instanceof HandlerMethod) {
+            profiler.endRequest();
+        }
+    }
+}
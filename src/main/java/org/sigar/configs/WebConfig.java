@@ -1,12 +1,34 @@
 package org.sigar.configs;
+import org.sigar.service.AdmissionControlService;
+import org.sigar.service.SqlProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
 public class WebConfig implements WebMvcConfigurer {
 
+    private final PropertyRegistry propertyRegistry;
+    private final AdmissionControlService admissionControlService;
+    private final AdmissionProperties admissionProperties;
+    private final SqlProfiler sqlProfiler;
+
+    @Autowired
+    public WebConfig(PropertyRegistry propertyRegistry,
+                     AdmissionControlService admissionControlService,
+                     AdmissionProperties admissionProperties,
+                     SqlProfiler sqlProfiler) {
+        this.propertyRegistry = propertyRegistry;
+        this.admissionControlService = admissionControlService;
+        this.admissionProperties = admissionProperties;
+        this.sqlProfiler = sqlProfiler;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -15,4 +37,17 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControlService,
+                        admissionProperties.getTrustedProxies(), admissionProperties.getForwardedHeader()))
+                .addPathPatterns("/api/PG2/**");
+        if (sqlProfiler.isEnabled()) {
+            registry.addInterceptor(new SqlProfilingInterceptor(sqlProfiler))
+                    .addPathPatterns("/api/PG2/**");
+        }
+        registry.addInterceptor(new PropertyInterceptor(propertyRegistry))
+                .addPathPatterns("/api/PG2/**");
+    }
 }
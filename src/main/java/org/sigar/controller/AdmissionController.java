@@ -0,0 +1,26 @@
+package org.sigar.controller;
+
+import org.sigar.dto.AdmissionMetricsDTO;
+import org.sigar.service.AdmissionControlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/PG2/admission")
+public class AdmissionController {
+
+    private final AdmissionControlService admissionControlService;
+
+    @Autowired
+    public AdmissionController(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<AdmissionMetricsDTO> getMetrics() {
+        return ResponseEntity.ok(admissionControlService.getMetrics());
+    }
+}
@@ -0,0 +1,41 @@
+package org.sigar.controller;
+
+import org.sigar.dto.ArchiveRunDTO;
+import org.sigar.dto.ArchiveStatusDTO;
+import org.sigar.service.ArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping({"/api/PG2/archive", "/api/PG2/{propertyId}/archive"})
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveController.class);
+
+    @Autowired
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ArchiveStatusDTO> getStatus() {
+        return ResponseEntity.ok(archiveService.getStatus());
+    }
+
+    // Runs the archive job now instead of waiting for the schedule, 409 while a run is in progress
+    @PostMapping("/run")
+    public ResponseEntity<ArchiveRunDTO> archive() {
+        logger.info("Archiving rows older than the horizon");
+        return archiveService.archive()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
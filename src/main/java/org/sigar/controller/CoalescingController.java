@@ -0,0 +1,26 @@
+package org.sigar.controller;
+
+import org.sigar.dto.CoalescingMetricsDTO;
+import org.sigar.service.QueryCoalescer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/PG2/coalescing")
+public class CoalescingController {
+
+    private final QueryCoalescer queryCoalescer;
+
+    @Autowired
+    public CoalescingController(QueryCoalescer queryCoalescer) {
+        this.queryCoalescer = queryCoalescer;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<CoalescingMetricsDTO> getMetrics() {
+        return ResponseEntity.ok(queryCoalescer.getMetrics());
+    }
+}
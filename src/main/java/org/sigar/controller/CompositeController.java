@@ -0,0 +1,91 @@
+package org.sigar.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.sigar.configs.AdmissionInterceptor;
+import org.sigar.dto.CompositeOperationDTO;
+import org.sigar.dto.CompositeOperationResultDTO;
+import org.sigar.dto.CompositeRequestDTO;
+import org.sigar.dto.CompositeResponseDTO;
+import org.sigar.service.AdmissionControlService;
+import org.sigar.service.CompositeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping({"/api/PG2/batch", "/api/PG2/{propertyId}/batch"})
+public class CompositeController {
+
+    private final CompositeService compositeService;
+    private final AdmissionControlService admissionControlService;
+    private final int maxOperations;
+    private static final Logger logger = LoggerFactory.getLogger(CompositeController.class);
+
+    @Autowired
+    public CompositeController(CompositeService compositeService,
+                               AdmissionControlService admissionControlService,
+                               @Value("${pg2.batch.max-operations:25}") int maxOperations) {
+        this.compositeService = compositeService;
+        this.admissionControlService = admissionControlService;
+        this.maxOperations = maxOperations;
+    }
+
+    // 200 once everything is committed, otherwise the status of the failed operation with all results.
+    // Admission charged the first operation, 429 when the client cannot afford the rest.
+    @PostMapping
+    public ResponseEntity<CompositeResponseDTO> execute(@RequestBody CompositeRequestDTO request,
+                                                        HttpServletRequest httpRequest) {
+        List<CompositeOperationDTO> operations = request.operations();
+        if (operations == null || operations.isEmpty() || operations.size() > maxOperations || !isWellFormed(operations)) {
+            logger.warn("Rejected a composite request of {} operations", operations != null ? operations.size() : 0);
+            return ResponseEntity.badRequest().build();
+        }
+        AdmissionControlService.Admission admission = admissionControlService.charge(httpRequest.getMethod(),
+                (String) httpRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                (String) httpRequest.getAttribute(AdmissionInterceptor.CLIENT_ATTRIBUTE), operations.size() - 1);
+        if (!admission.admitted()) {
+            logger.warn("Shed a composite request of {} operations", operations.size());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()))
+                    .build();
+        }
+        logger.info("Running a composite request of {} operations", operations.size());
+        CompositeResponseDTO response = compositeService.execute(operations);
+        if (response.committed()) {
+            return ResponseEntity.ok(response);
+        }
+        int status = response.results().stream()
+                .map(CompositeOperationResultDTO::status)
+                .filter(code -> code >= 400 && code != HttpStatus.FAILED_DEPENDENCY.value())
+                .findFirst()
+                .orElse(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        return ResponseEntity.status(status).body(response);
+    }
+
+    // Every operation needs a method and path, reference ids must be unique
+    private static boolean isWellFormed(List<CompositeOperationDTO> operations) {
+        Set<String> referenceIds = new HashSet<>();
+        for (CompositeOperationDTO operation : operations) {
+            if (operation == null || operation.method() == null || operation.path() == null) {
+                return false;
+            }
+            if (operation.referenceId() != null && !referenceIds.add(operation.referenceId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
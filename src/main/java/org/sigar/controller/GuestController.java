@@ -1,5 +1,6 @@
 package org.sigar.controller;
 
+import org.sigar.dto.BulkOperationResultDTO;
 import org.sigar.dto.GuestResponseDTO;
 import org.sigar.model.Guest;
 import org.sigar.service.GuestService;
@@ -17,7 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
-@RequestMapping("/api/PG2/guests")
+@RequestMapping({"/api/PG2/guests", "/api/PG2/{propertyId}/guests"})
 public class GuestController {
 
     private final GuestService guestService;
@@ -75,6 +76,21 @@ public class GuestController {
         }
     }
 
+    @PostMapping("/checkout")
+    public ResponseEntity<BulkOperationResultDTO> checkoutGuests(@RequestBody List<Long> guestIds){
+        if (guestIds == null || guestIds.isEmpty()) {
+            logger.warn("Bulk checkout requested without guest IDs");
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Checking out {} guests", guestIds.size());
+        return ResponseEntity.ok(guestService.checkoutGuests(guestIds));
+    }
+
+    @DeleteMapping("/floor/{floor}")
+    public ResponseEntity<BulkOperationResultDTO> checkoutFloor(@PathVariable int floor){
+        logger.info("Checking out all guests on floor {}", floor);
+        return ResponseEntity.ok(guestService.checkoutFloor(floor));
+    }
 
     @GetMapping("/occupancy")
     public ResponseEntity<List<GuestResponseDTO>> getGuestsBetweenDateOfOccupancy(
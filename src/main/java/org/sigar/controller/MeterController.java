@@ -0,0 +1,94 @@
+package org.sigar.controller;
+
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.dto.MeterBillingDTO;
+import org.sigar.dto.MeterConsumptionDTO;
+import org.sigar.dto.MeterIngestResultDTO;
+import org.sigar.dto.MeterReadingDTO;
+import org.sigar.dto.MeterStoreStatsDTO;
+import org.sigar.service.MeterReadingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping({"/api/PG2/meters", "/api/PG2/{propertyId}/meters"})
+public class MeterController {
+
+    private final MeterReadingService meterReadingService;
+    private final int maxBatchSize;
+    private static final Logger logger = LoggerFactory.getLogger(MeterController.class);
+
+    @Autowired
+    public MeterController(MeterReadingService meterReadingService,
+                           @Value("${pg2.meters.max-batch-size:5000}") int maxBatchSize) {
+        this.meterReadingService = meterReadingService;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // One batch is stored in a single JDBC batch, readings of unknown rooms reject the whole batch
+    @PostMapping("/readings")
+    public ResponseEntity<MeterIngestResultDTO> ingestReadings(@RequestBody List<MeterReadingDTO> readings) {
+        if (readings.isEmpty() || readings.size() > maxBatchSize || !readings.stream().allMatch(MeterController::isValid)) {
+            logger.warn("Rejected a batch of {} meter readings", readings.size());
+            return ResponseEntity.badRequest().build();
+        }
+        return meterReadingService.ingest(readings)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    logger.warn("Rejected a batch of {} meter readings for unknown rooms", readings.size());
+                    return ResponseEntity.badRequest().build();
+                });
+    }
+
+    @GetMapping("/rooms/{roomId}/consumption")
+    public ResponseEntity<MeterConsumptionDTO> getConsumption(@PathVariable Long roomId,
+                                                              @RequestParam("meterType") MeterType meterType,
+                                                              @RequestParam("from") LocalDate from,
+                                                              @RequestParam("to") LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return meterReadingService.getConsumption(roomId, meterType, from, to)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Only completed months can be billed
+    @PostMapping("/billing")
+    public ResponseEntity<MeterBillingDTO> bill(@RequestParam("month") YearMonth month,
+                                                @RequestParam("meterType") MeterType meterType) {
+        if (!month.isBefore(YearMonth.now())) {
+            logger.warn("Refused to bill {} for {}, the month is not over", meterType, month);
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Billing {} consumption for {}", meterType, month);
+        return meterReadingService.bill(month, meterType)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<MeterStoreStatsDTO> getStats() {
+        return ResponseEntity.ok(meterReadingService.getStats());
+    }
+
+    private static boolean isValid(MeterReadingDTO reading) {
+        return reading != null && reading.roomId() != null && reading.meterType() != null && reading.readAt() != null
+                && reading.reading() != null && Double.isFinite(reading.reading()) && reading.reading() >= 0;
+    }
+}
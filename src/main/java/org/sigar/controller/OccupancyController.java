@@ -0,0 +1,43 @@
+package org.sigar.controller;
+
+import org.sigar.dto.OccupancyDTO;
+import org.sigar.service.OccupancyCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+// Served from in-memory counters, no database access
+@RestController
+@RequestMapping({"/api/PG2/occupancy", "/api/PG2/{propertyId}/occupancy"})
+public class OccupancyController {
+
+    private final OccupancyCounters occupancyCounters;
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyController.class);
+
+    @Autowired
+    public OccupancyController(OccupancyCounters occupancyCounters) {
+        this.occupancyCounters = occupancyCounters;
+    }
+
+    // Arrivals default to the last seven days including today
+    @GetMapping
+    public ResponseEntity<OccupancyDTO> getOccupancy(
+            @RequestParam("arrivalsFrom") Optional<LocalDate> arrivalsFrom,
+            @RequestParam("arrivalsTo") Optional<LocalDate> arrivalsTo) {
+        LocalDate to = arrivalsTo.orElse(LocalDate.now());
+        LocalDate from = arrivalsFrom.orElse(to.minusDays(6));
+        if (from.isAfter(to)) {
+            logger.warn("Invalid arrival range: arrivalsFrom={}, arrivalsTo={}", from, to);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(occupancyCounters.getOccupancy(from, to));
+    }
+}
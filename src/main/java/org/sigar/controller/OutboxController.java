@@ -0,0 +1,28 @@
+package org.sigar.controller;
+
+import org.sigar.dto.OutboxMetricsDTO;
+import org.sigar.service.OutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/PG2/outbox")
+public class OutboxController {
+
+    private final OutboxRelay outboxRelay;
+
+    @Autowired
+    public OutboxController(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<List<OutboxMetricsDTO>> getMetrics() {
+        return ResponseEntity.ok(outboxRelay.getMetrics());
+    }
+}
@@ -2,10 +2,14 @@ package org.sigar.controller;
 
 import jakarta.transaction.Transaction;
 import org.sigar.dto.DTOConverter;
+import org.sigar.dto.JournalReplayDTO;
+import org.sigar.dto.JournalVerificationDTO;
 import org.sigar.dto.PaymentTransactionResponseDTO;
 import org.sigar.dto.RentalContractResponseDTO;
+import org.sigar.dto.TransactionHistoryPageDTO;
 import org.sigar.model.PaymentTransaction;
 import org.sigar.model.RentalContract;
+import org.sigar.service.PaymentJournalService;
 import org.sigar.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,16 +17,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 
 @RestController
-@RequestMapping("/api/PG2/payment")
+@RequestMapping({"/api/PG2/payment", "/api/PG2/{propertyId}/payment"})
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentJournalService paymentJournalService;
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
     @Autowired
-    public PaymentController(PaymentService paymentService){
+    public PaymentController(PaymentService paymentService, PaymentJournalService paymentJournalService){
         this.paymentService = paymentService;
+        this.paymentJournalService = paymentJournalService;
     }
 
     @PostMapping("/rentalContract")
@@ -37,4 +47,38 @@ public class PaymentController {
         PaymentTransactionResponseDTO transactionResponseDTO = paymentService.addPaymentTransaction(paymentTransaction);
         return ResponseEntity.ok(transactionResponseDTO);
     }
+
+    @GetMapping("/journal/balances")
+    public ResponseEntity<JournalReplayDTO> rebuildBalancesFromJournal(){
+        logger.info("Rebuilding contract balances from the payment journal");
+        return ResponseEntity.ok(paymentJournalService.rebuildBalances());
+    }
+
+    @GetMapping("/journal/verify")
+    public ResponseEntity<JournalVerificationDTO> verifyJournal(){
+        logger.info("Verifying the payment journal against the database");
+        return ResponseEntity.ok(paymentJournalService.verify());
+    }
+
+    @GetMapping("/rentalContract/overdue")
+    public ResponseEntity<List<RentalContractResponseDTO>> getOverdueRentalContracts(){
+        logger.info("Fetching overdue Rental Contracts");
+        return ResponseEntity.ok(paymentService.getOverdueRentalContracts());
+    }
+
+    @GetMapping("/rentalContract/{rentalContractId}/transactions")
+    public ResponseEntity<TransactionHistoryPageDTO> getTransactionHistory(
+            @PathVariable Long rentalContractId,
+            @RequestParam("beforeDate") Optional<LocalDate> beforeDate,
+            @RequestParam("beforeId") Optional<Long> beforeId,
+            @RequestParam(value = "size", defaultValue = "20") int size){
+        if(beforeDate.isPresent() != beforeId.isPresent() || size < 1){
+            logger.warn("Invalid history cursor: beforeDate={}, beforeId={}, size={}", beforeDate, beforeId, size);
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Fetching transaction history for Rental Contract {}", rentalContractId);
+        return paymentService.getTransactionHistory(rentalContractId, beforeDate.orElse(null), beforeId.orElse(null), size)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,34 @@
+package org.sigar.controller;
+
+import org.sigar.dto.SqlProfileDTO;
+import org.sigar.service.SqlProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/PG2/profiler")
+public class ProfilerController {
+
+    private final SqlProfiler sqlProfiler;
+
+    @Autowired
+    public ProfilerController(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    // Empty unless the app was started with pg2.profiler.enabled=true
+    @GetMapping("/sql")
+    public ResponseEntity<SqlProfileDTO> getSqlProfile() {
+        return ResponseEntity.ok(sqlProfiler.getProfile());
+    }
+
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetSqlProfile() {
+        sqlProfiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package org.sigar.controller;
+
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.PropertySummaryDTO;
+import org.sigar.service.PropertyReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/PG2/reports")
+public class ReportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+    private final PropertyReportService propertyReportService;
+    private final PropertyRegistry propertyRegistry;
+
+    @Autowired
+    public ReportController(PropertyReportService propertyReportService, PropertyRegistry propertyRegistry) {
+        this.propertyReportService = propertyReportService;
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    @GetMapping("/properties")
+    public ResponseEntity<List<PropertySummaryDTO>> summarizeProperties() {
+        logger.info("Building summary across {} properties", propertyRegistry.getPropertyIds().size());
+        return ResponseEntity.ok(propertyReportService.summarizeProperties());
+    }
+
+    @GetMapping("/property-ids")
+    public ResponseEntity<Set<String>> getPropertyIds() {
+        return ResponseEntity.ok(propertyRegistry.getPropertyIds());
+    }
+}
@@ -1,8 +1,12 @@
 package org.sigar.controller;
 
+import org.sigar.dto.BulkOperationResultDTO;
+import org.sigar.dto.RoomAllocationRequestDTO;
+import org.sigar.dto.RoomAllocationResponseDTO;
 import org.sigar.dto.RoomResponseDTO;
 import org.sigar.model.Guest;
 import org.sigar.model.Room;
+import org.sigar.service.RoomAllocationService;
 import org.sigar.service.RoomService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,15 +19,17 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
-@RequestMapping("/api/PG2/rooms")
+@RequestMapping({"/api/PG2/rooms", "/api/PG2/{propertyId}/rooms"})
 public class RoomController {
 
     private static final Logger logger = LoggerFactory.getLogger(RoomController.class);
     private final RoomService roomService;
+    private final RoomAllocationService roomAllocationService;
 
     @Autowired
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, RoomAllocationService roomAllocationService) {
         this.roomService = roomService;
+        this.roomAllocationService = roomAllocationService;
     }
 
     @GetMapping
@@ -37,6 +43,18 @@ public class RoomController {
         return ResponseEntity.status(HttpStatus.CREATED).body(roomService.addRoom(room));
     }
 
+    @PostMapping("/allocation")
+    public ResponseEntity<RoomAllocationResponseDTO> allocateRooms(@RequestBody RoomAllocationRequestDTO request) {
+        if (request.groupSize() == null || request.groupSize() < 1) {
+            logger.warn("Invalid group size for allocation: {}", request.groupSize());
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Allocating rooms for a group of {}", request.groupSize());
+        return roomAllocationService.allocate(request)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
     @PostMapping("/{roomId}/guests")
     public ResponseEntity<String> addGuestToRoom(@PathVariable Long roomId,
                                                  @RequestBody Guest guest) {
@@ -62,6 +80,22 @@ public class RoomController {
                     .body("Room with ID " + roomId + " not found.");
         }
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkOperationResultDTO> deleteRooms(@RequestBody List<Long> roomIds){
+        if (roomIds == null || roomIds.isEmpty()) {
+            logger.warn("Bulk room removal requested without room IDs");
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Removing {} rooms", roomIds.size());
+        return ResponseEntity.ok(roomService.removeRooms(roomIds));
+    }
+
+    @DeleteMapping("/floor/{floor}")
+    public ResponseEntity<BulkOperationResultDTO> deleteFloor(@PathVariable int floor){
+        logger.info("Removing all rooms on floor {}", floor);
+        return ResponseEntity.ok(roomService.removeFloor(floor));
+    }
 }
 
 
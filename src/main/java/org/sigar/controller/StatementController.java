@@ -0,0 +1,54 @@
+package org.sigar.controller;
+
+import org.sigar.Constants.enums.StatementFormat;
+import org.sigar.dto.StatementRunDTO;
+import org.sigar.service.StatementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping({"/api/PG2/statements", "/api/PG2/{propertyId}/statements"})
+public class StatementController {
+
+    private final StatementService statementService;
+    private static final Logger logger = LoggerFactory.getLogger(StatementController.class);
+
+    @Autowired
+    public StatementController(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    // Runs in the background, poll the returned run for progress. The month defaults to the previous one
+    @PostMapping
+    public ResponseEntity<StatementRunDTO> generateStatements(
+            @RequestParam("month") Optional<YearMonth> month,
+            @RequestParam(value = "format", defaultValue = "DIRECTORY") StatementFormat format) {
+        YearMonth statementMonth = month.orElse(YearMonth.now().minusMonths(1));
+        logger.info("Starting statement run for {} as {}", statementMonth, format);
+        return ResponseEntity.accepted().body(statementService.start(statementMonth, format));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StatementRunDTO>> getStatementRuns() {
+        return ResponseEntity.ok(statementService.getRuns());
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<StatementRunDTO> getStatementRun(@PathVariable Long runId) {
+        return statementService.getRun(runId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
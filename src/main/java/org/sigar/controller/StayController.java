@@ -0,0 +1,75 @@
+package org.sigar.controller;
+
+import org.sigar.dto.StayDTO;
+import org.sigar.dto.StayOccupancyDTO;
+import org.sigar.service.StayHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Served from the in-memory stay trees. Stays are asked for either on one date or overlapping from..to
+@RestController
+@RequestMapping({"/api/PG2/stays", "/api/PG2/{propertyId}/stays"})
+public class StayController {
+
+    private final StayHistoryService stayHistoryService;
+    private static final Logger logger = LoggerFactory.getLogger(StayController.class);
+
+    @Autowired
+    public StayController(StayHistoryService stayHistoryService) {
+        this.stayHistoryService = stayHistoryService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StayDTO>> getStays(
+            @RequestParam("date") Optional<LocalDate> date,
+            @RequestParam("from") Optional<LocalDate> from,
+            @RequestParam("to") Optional<LocalDate> to) {
+        if (!isValidRange(date, from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stayHistoryService.getStays(date.orElseGet(from::get), date.orElseGet(to::get)));
+    }
+
+    @GetMapping("/rooms/{roomId}")
+    public ResponseEntity<List<StayDTO>> getRoomStays(
+            @PathVariable Long roomId,
+            @RequestParam("date") Optional<LocalDate> date,
+            @RequestParam("from") Optional<LocalDate> from,
+            @RequestParam("to") Optional<LocalDate> to) {
+        if (!isValidRange(date, from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stayHistoryService.getRoomStays(roomId, date.orElseGet(from::get), date.orElseGet(to::get)));
+    }
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<StayOccupancyDTO> getOccupancy(
+            @RequestParam("from") Optional<LocalDate> from,
+            @RequestParam("to") Optional<LocalDate> to) {
+        if (!isValidRange(Optional.empty(), from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stayHistoryService.getOccupancy(from.get(), to.get()));
+    }
+
+    private static boolean isValidRange(Optional<LocalDate> date, Optional<LocalDate> from, Optional<LocalDate> to) {
+        boolean valid = date.isPresent()
+                ? from.isEmpty() && to.isEmpty()
+                : from.isPresent() && to.isPresent() && !from.get().isAfter(to.get());
+        if (!valid) {
+            logger.warn("Invalid stay query: date={}, from={}, to={}", date, from, to);
+        }
+        return valid;
+    }
+}
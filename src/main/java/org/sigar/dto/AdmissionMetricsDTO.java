@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+public record AdmissionMetricsDTO(
+        Boolean enabled,
+        Integer inFlightWrites,
+        Integer maxConcurrentWrites,
+        Double availableGlobalWriteTokens,
+        Integer trackedClients,
+        List<RouteAdmissionMetricsDTO> routes
+) {
+}
@@ -0,0 +1,14 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+
+// Rows dated before horizon were moved, transactions by transaction date and stays by check-out date
+public record ArchiveRunDTO(
+        String propertyId,
+        LocalDate horizon,
+        Long transactionsArchived,
+        Long staysArchived,
+        Integer batches,
+        Long elapsedMillis
+) {
+}
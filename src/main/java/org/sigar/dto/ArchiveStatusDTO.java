@@ -0,0 +1,17 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+
+// transactionsArchivedThrough is the latest date the archive may hold, null while it is empty
+public record ArchiveStatusDTO(
+        String propertyId,
+        Boolean enabled,
+        Boolean running,
+        LocalDate horizon,
+        Long hotTransactions,
+        Long archivedTransactions,
+        LocalDate transactionsArchivedThrough,
+        Long hotStays,
+        Long archivedStays
+) {
+}
@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+public record BulkOperationResultDTO(
+        int requested,
+        int guestsRemoved,
+        int guestsDetached,
+        int roomsReleased,
+        int roomsRemoved
+) {
+    public static BulkOperationResultDTO empty(int requested) {
+        return new BulkOperationResultDTO(requested, 0, 0, 0, 0);
+    }
+}
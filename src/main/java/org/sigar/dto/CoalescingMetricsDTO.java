@@ -0,0 +1,10 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+public record CoalescingMetricsDTO(
+        Boolean enabled,
+        Long timeoutMillis,
+        List<QueryCoalescingMetricsDTO> queries
+) {
+}
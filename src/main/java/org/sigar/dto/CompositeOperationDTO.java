@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// One write of a composite request, path is relative to /api/PG2 (e.g. /rooms/3/guests). A string
+// "$ref:<referenceId>" in the path or anywhere in the body is replaced by the id an earlier operation created.
+public record CompositeOperationDTO(
+        String referenceId,
+        String method,
+        String path,
+        JsonNode body
+) {
+}
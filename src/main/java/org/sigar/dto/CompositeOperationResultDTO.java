@@ -0,0 +1,12 @@
+package org.sigar.dto;
+
+// status is what the single endpoint would have answered, 424 for operations not run after a failure
+public record CompositeOperationResultDTO(
+        Integer index,
+        String referenceId,
+        Integer status,
+        Long id,
+        Object body,
+        String error
+) {
+}
@@ -0,0 +1,8 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+public record CompositeRequestDTO(
+        List<CompositeOperationDTO> operations
+) {
+}
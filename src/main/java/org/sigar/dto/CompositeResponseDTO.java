@@ -0,0 +1,12 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+// When committed is false nothing was written, the results show how far the batch got before it was rolled back
+public record CompositeResponseDTO(
+        String propertyId,
+        Boolean committed,
+        String error,
+        List<CompositeOperationResultDTO> results
+) {
+}
@@ -1,6 +1,7 @@
 package org.sigar.dto;
 
 import org.sigar.Constants.enums.Beds;
+import org.sigar.model.ArchivedPaymentTransaction;
 import org.sigar.model.Guest;
 import org.sigar.model.PaymentTransaction;
 import org.sigar.model.RentalContract;
@@ -72,6 +73,16 @@ public class DTOConverter {
                 paymentTransaction.getAmount());
     }
 
+    public static PaymentTransactionResponseDTO convertToPaymentTransactionResponseDTO(ArchivedPaymentTransaction archivedTransaction){
+        return new PaymentTransactionResponseDTO(
+                archivedTransaction.getTransactionId(),
+                archivedTransaction.getRoomNumber() != null ? archivedTransaction.getRoomNumber() : -1,
+                archivedTransaction.getGuestName() != null ? archivedTransaction.getGuestName() : "N/A",
+                archivedTransaction.getTransactionDate(),
+                archivedTransaction.getTransactionType(),
+                archivedTransaction.getAmount());
+    }
+
     public static RentalContractResponseDTO convertToRentalContractResponseDTO(RentalContract rentalContract) {
         return new RentalContractResponseDTO(
                 rentalContract.getId(),
@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.Beds;
+
+public record FloorOccupancyDTO(
+        Integer floor,
+        Beds beds,
+        Long rooms,
+        Long availableRooms,
+        Long residents,
+        Long bedCapacity
+) {
+}
@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import java.util.Map;
+
+// balances maps rental contract ID (0 for payments without a contract) to the total amount paid
+public record JournalReplayDTO(
+        String propertyId,
+        Long events,
+        Long replayMillis,
+        Long eventsPerSecond,
+        Map<Long, Long> balances
+) {
+}
@@ -0,0 +1,12 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+public record JournalVerificationDTO(
+        String propertyId,
+        Long events,
+        Long replayMillis,
+        Integer contractsChecked,
+        List<Long> mismatchedContractIds
+) {
+}
@@ -0,0 +1,17 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.MeterType;
+
+import java.time.YearMonth;
+
+// Contracts billed for the month before are counted as already billed and left alone
+public record MeterBillingDTO(
+        String propertyId,
+        YearMonth month,
+        MeterType meterType,
+        Integer contractsBilled,
+        Integer contractsAlreadyBilled,
+        Double consumption,
+        Long amountBilled
+) {
+}
@@ -0,0 +1,22 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.MeterType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Consumption between the last reading before from and the last reading before the day after to.
+// Without an earlier reading it is counted from the first reading in the range.
+public record MeterConsumptionDTO(
+        String propertyId,
+        Long roomId,
+        MeterType meterType,
+        LocalDate from,
+        LocalDate to,
+        LocalDateTime startReadAt,
+        Double startReading,
+        LocalDateTime endReadAt,
+        Double endReading,
+        Double consumption
+) {
+}
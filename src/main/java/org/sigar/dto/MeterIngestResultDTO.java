@@ -0,0 +1,7 @@
+package org.sigar.dto;
+
+public record MeterIngestResultDTO(
+        String propertyId,
+        Integer accepted
+) {
+}
@@ -0,0 +1,14 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.MeterType;
+
+import java.time.LocalDateTime;
+
+// reading is the meter's cumulative register value, not the consumption since the previous reading
+public record MeterReadingDTO(
+        Long roomId,
+        MeterType meterType,
+        LocalDateTime readAt,
+        Double reading
+) {
+}
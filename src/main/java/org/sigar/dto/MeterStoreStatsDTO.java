@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+// Points held in memory per resolution, pointsDropped counts readings thinned out since startup
+public record MeterStoreStatsDTO(
+        String propertyId,
+        Integer series,
+        Long rawPoints,
+        Long hourlyPoints,
+        Long dailyPoints,
+        Long readingsIngested,
+        Long pointsDropped
+) {
+}
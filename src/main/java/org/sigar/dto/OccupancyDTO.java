@@ -0,0 +1,20 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record OccupancyDTO(
+        String propertyId,
+        Long rooms,
+        Long availableRooms,
+        Long residents,
+        Long bedCapacity,
+        Long arrivals,
+        Map<LocalDate, Long> arrivalsByDay,
+        List<FloorOccupancyDTO> floors,
+        LocalDateTime seededAt,
+        Long driftCorrections
+) {
+}
@@ -0,0 +1,14 @@
+package org.sigar.dto;
+
+// parked counts events that used up their attempts and are left for an operator
+public record OutboxMetricsDTO(
+        String propertyId,
+        Long pending,
+        Long oldestPendingAgeMillis,
+        Long parked,
+        Long delivered,
+        Long failedAttempts,
+        Long lastDeliveryLagMillis,
+        Long maxDeliveryLagMillis
+) {
+}
@@ -0,0 +1,11 @@
+package org.sigar.dto;
+
+public record PropertySummaryDTO(
+        String propertyId,
+        Long rooms,
+        Long availableRooms,
+        Long guests,
+        Long rentalContracts,
+        Long amountCollected
+) {
+}
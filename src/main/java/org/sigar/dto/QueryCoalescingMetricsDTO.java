@@ -0,0 +1,11 @@
+package org.sigar.dto;
+
+// collapsed counts requests that shared another request's execution instead of querying the database
+public record QueryCoalescingMetricsDTO(
+        String query,
+        Long executions,
+        Long collapsed,
+        Long timeouts,
+        Integer inFlight
+) {
+}
@@ -0,0 +1,15 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.Beds;
+
+import java.util.List;
+
+public record RoomAllocationRequestDTO(
+        Integer groupSize,
+        List<Beds> beds,
+        Boolean needsAC,
+        Boolean needsKitchen,
+        Integer maxTotalRent,
+        Boolean sameFloor
+) {
+}
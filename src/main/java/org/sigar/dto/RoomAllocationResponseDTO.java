@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+// sameFloor is false when a same-floor allocation was requested but none fitted, optimal is false when the search budget ran out
+public record RoomAllocationResponseDTO(
+        List<RoomResponseDTO> rooms,
+        Integer totalBeds,
+        Integer totalRent,
+        Boolean sameFloor,
+        Boolean optimal
+) {
+}
@@ -0,0 +1,14 @@
+package org.sigar.dto;
+
+public record RouteAdmissionMetricsDTO(
+        String method,
+        String pattern,
+        Integer cost,
+        Long admitted,
+        Long rejectedPerClient,
+        Long rejectedRoute,
+        Long rejectedGlobal,
+        Long rejectedConcurrency,
+        Double availableRouteTokens
+) {
+}
@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+// Per endpoint (method and route pattern), times in milliseconds
+public record SqlEndpointProfileDTO(
+        String endpoint,
+        Long requests,
+        Long statements,
+        Double statementsPerRequest,
+        Double sqlMillis,
+        Double maxRequestMillis,
+        Long nPlusOneRequests
+) {
+}
@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+// One normalized statement run by one endpoint, nPlusOneRequests counts requests that repeated it past the threshold
+public record SqlFingerprintProfileDTO(
+        String endpoint,
+        String fingerprint,
+        Long executions,
+        Long rows,
+        Double totalMillis,
+        Double maxMillis,
+        Long nPlusOneRequests
+) {
+}
@@ -0,0 +1,14 @@
+package org.sigar.dto;
+
+import java.util.List;
+
+// Everything the SQL profiler saw in its rolling window, statements outside a request are under "background"
+public record SqlProfileDTO(
+        Boolean enabled,
+        Integer windowMinutes,
+        List<SqlEndpointProfileDTO> endpoints,
+        List<SqlFingerprintProfileDTO> topFingerprints,
+        List<SqlRequestProfileDTO> slowestRequests,
+        List<SqlRequestProfileDTO> nPlusOneRequests
+) {
+}
@@ -0,0 +1,15 @@
+package org.sigar.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A single request kept as a sample, statements ordered by time spent
+public record SqlRequestProfileDTO(
+        String endpoint,
+        String propertyId,
+        LocalDateTime finishedAt,
+        Double elapsedMillis,
+        Double sqlMillis,
+        List<SqlStatementProfileDTO> statements
+) {
+}
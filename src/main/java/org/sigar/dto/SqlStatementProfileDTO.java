@@ -0,0 +1,11 @@
+package org.sigar.dto;
+
+// One fingerprint within a single request
+public record SqlStatementProfileDTO(
+        String fingerprint,
+        Long executions,
+        Long rows,
+        Double millis,
+        Boolean nPlusOne
+) {
+}
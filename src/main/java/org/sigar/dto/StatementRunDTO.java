@@ -0,0 +1,24 @@
+package org.sigar.dto;
+
+import org.sigar.Constants.enums.StatementFormat;
+import org.sigar.Constants.enums.StatementRunStatus;
+
+import java.time.YearMonth;
+
+// Progress of a statement run, totalContracts is counted when the run starts
+public record StatementRunDTO(
+        Long runId,
+        String propertyId,
+        YearMonth month,
+        StatementFormat format,
+        StatementRunStatus status,
+        Long totalContracts,
+        Long statementsWritten,
+        Long transactionsIncluded,
+        Long bytesWritten,
+        Long elapsedMillis,
+        Long statementsPerSecond,
+        String output,
+        String error
+) {
+}
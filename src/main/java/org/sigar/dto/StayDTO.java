@@ -0,0 +1,15 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+
+// checkOut is null while the guest is still in the room
+public record StayDTO(
+        Long stayId,
+        Long guestId,
+        String guestName,
+        Long roomId,
+        Integer roomNumber,
+        LocalDate checkIn,
+        LocalDate checkOut
+) {
+}
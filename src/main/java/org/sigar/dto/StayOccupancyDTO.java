@@ -0,0 +1,15 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+
+// guestDays counts the days of each stay inside the range, stays still open count until the end of the range
+public record StayOccupancyDTO(
+        String propertyId,
+        LocalDate from,
+        LocalDate to,
+        Long stays,
+        Long guests,
+        Long occupiedRooms,
+        Long guestDays
+) {
+}
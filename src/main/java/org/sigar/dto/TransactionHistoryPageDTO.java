@@ -0,0 +1,13 @@
+package org.sigar.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// nextBeforeDate/nextBeforeId are the cursor for the following page, both null on the last page
+public record TransactionHistoryPageDTO(
+        Long rentalContractId,
+        List<PaymentTransactionResponseDTO> transactions,
+        LocalDate nextBeforeDate,
+        Long nextBeforeId
+) {
+}
@@ -0,0 +1,17 @@
+package org.sigar.events;
+
+import org.sigar.Constants.enums.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+// In-process form of a relayed outbox event, listeners may see the same eventId more than once
+public record DomainEvent(
+        Long eventId,
+        String propertyId,
+        String aggregateType,
+        Long aggregateId,
+        OutboxEventType eventType,
+        String payload,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,10 @@
+package org.sigar.events;
+
+import java.time.LocalDate;
+
+public record GuestCheckoutPayload(
+        Long guestId,
+        Long roomId,
+        LocalDate checkedOutOn
+) {
+}
@@ -0,0 +1,10 @@
+package org.sigar.events;
+
+import java.time.LocalDate;
+
+public record RentOverdueEvent(
+        String propertyId,
+        Long rentalContractId,
+        LocalDate rentDueDate
+) {
+}
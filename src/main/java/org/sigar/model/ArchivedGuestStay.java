@@ -0,0 +1,50 @@
+package org.sigar.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+// Cold copy of a GuestStay that ended before the archive horizon, written by ArchiveService with the original id
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(name = "guest_stay_archive")
+public class ArchivedGuestStay {
+
+    @Id
+    @Column(name = "guest_stay_id")
+    private long id;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
+    @Column(name = "guest_id")
+    private Long guestId;
+    private String guestName;
+    @Column(name = "room_id")
+    private Long roomId;
+    private Integer roomNumber;
+
+    @Column(name = "check_in", nullable = false)
+    private LocalDate checkIn;
+    @Column(name = "check_out")
+    private LocalDate checkOut;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getId() != 0 && getId() == ((ArchivedGuestStay) o).getId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getId());
+    }
+}
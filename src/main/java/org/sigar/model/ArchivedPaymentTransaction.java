@@ -0,0 +1,58 @@
+package org.sigar.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.sigar.Constants.enums.TransactionType;
+
+import java.time.LocalDate;
+
+// Cold copy of a PaymentTransaction older than the archive horizon, written by ArchiveService with the original id.
+// Room number and guest name are copied because the rows they came from may be deleted later.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(name = "payment_transaction_archive", indexes = @Index(name = "idx_payment_transaction_archive_contract_date",
+        columnList = "rental_contract_id, transaction_date, transaction_id"))
+public class ArchivedPaymentTransaction {
+
+    @Id
+    @Column(name = "transaction_id")
+    private long transactionId;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
+    @Column(name = "rental_contract_id")
+    private Long rentalContractId;
+    @Column(name = "room_id")
+    private Long roomId;
+    private Integer roomNumber;
+    @Column(name = "guest_id")
+    private Long guestId;
+    private String guestName;
+
+    @Column(name = "transaction_date")
+    private LocalDate transactionDate;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    private String notes;
+    private Integer amount;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getTransactionId() != 0 && getTransactionId() == ((ArchivedPaymentTransaction) o).getTransactionId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getTransactionId());
+    }
+}
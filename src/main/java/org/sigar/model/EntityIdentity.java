@@ -0,0 +1,26 @@
+package org.sigar.model;
+
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Helpers for the id based equals/hashCode of the entities.
+ * Equality only looks at the id, never at the associations, so comparing or hashing an entity can't trigger a lazy load.
+ * The entity methods are final and read the id through its getter, a Hibernate proxy answers both
+ * without being initialized. Transient instances (id 0) are only equal to themselves and ids are generated
+ * by the database, so an entity has to be persisted before it is put in a set.
+ */
+final class EntityIdentity {
+
+    private EntityIdentity() {
+    }
+
+    static Class<?> effectiveClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+
+    static boolean sameType(Object entity, Object other) {
+        return other != null && effectiveClass(entity) == effectiveClass(other);
+    }
+}
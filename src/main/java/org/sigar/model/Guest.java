@@ -4,21 +4,29 @@ package org.sigar.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
-public class Guest {
+@EntityListeners(PropertyStampListener.class)
+public class Guest implements PropertyScoped {
     @Id
     @Column(name = "guest_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long guestId;
 
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
     private String name;
     private Integer age;
 
@@ -29,5 +37,18 @@ public class Guest {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id",referencedColumnName = "room_id")
     @JsonBackReference
+    @ToString.Exclude
     private Room room;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getGuestId() != 0 && getGuestId() == ((Guest) o).getGuestId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getGuestId());
+    }
 }
@@ -0,0 +1,66 @@
+package org.sigar.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+// One stay of a guest in a room, both dates inclusive. Kept after the guest and room rows are deleted,
+// so they are referenced by id and the name and number are copied.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_guest_stay_guest_check_out", columnList = "guest_id, check_out"),
+        @Index(name = "idx_guest_stay_room_check_in", columnList = "room_id, check_in"),
+        @Index(name = "idx_guest_stay_check_out", columnList = "check_out, guest_stay_id")
+})
+@EntityListeners(PropertyStampListener.class)
+public class GuestStay implements PropertyScoped {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "guest_stay_id")
+    private long id;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
+    @Column(name = "guest_id")
+    private Long guestId;
+    private String guestName;
+    @Column(name = "room_id")
+    private Long roomId;
+    private Integer roomNumber;
+
+    @Column(name = "check_in", nullable = false)
+    private LocalDate checkIn;
+    // null while the guest is still in the room
+    @Column(name = "check_out")
+    private LocalDate checkOut;
+
+    public GuestStay(Long guestId, String guestName, Long roomId, Integer roomNumber, LocalDate checkIn) {
+        this.guestId = guestId;
+        this.guestName = guestName;
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+        this.checkIn = checkIn;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getId() != 0 && getId() == ((GuestStay) o).getId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getId());
+    }
+}
@@ -0,0 +1,71 @@
+package org.sigar.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.sigar.Constants.enums.MeterType;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Cumulative register value of a room's sub-meter at one point in time. Written and deleted in JDBC batches by
+// MeterReadingRepository, the entity only describes the table. Older rows are thinned out to the last reading
+// of each hour and then of each day, so consumption between hour or day boundaries stays exact.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(MeterReading.Key.class)
+public class MeterReading implements PropertyScoped {
+
+    @Id
+    @Column(name = "room_id")
+    private long roomId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "meter_type", length = 20)
+    private MeterType meterType;
+
+    @Id
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
+    @Column(name = "reading", nullable = false)
+    private double reading;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        MeterReading other = (MeterReading) o;
+        return getReadAt() != null && getRoomId() == other.getRoomId() && getMeterType() == other.getMeterType()
+                && getReadAt().equals(other.getReadAt());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(getRoomId(), getMeterType(), getReadAt());
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private long roomId;
+        private MeterType meterType;
+        private LocalDateTime readAt;
+    }
+}
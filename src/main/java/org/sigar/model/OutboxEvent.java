@@ -0,0 +1,64 @@
+package org.sigar.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.sigar.Constants.enums.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(indexes = {
+        @Index(name = "idx_outbox_event_unpublished", columnList = "published_at, outbox_event_id"),
+        @Index(name = "idx_outbox_event_aggregate", columnList = "aggregate_type, aggregate_id")
+})
+@EntityListeners(PropertyStampListener.class)
+public class OutboxEvent implements PropertyScoped {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_event_id")
+    private long id;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
+    // Events of one aggregate are delivered in id order
+    @Column(name = "aggregate_type", length = 40)
+    private String aggregateType;
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40)
+    private OutboxEventType eventType;
+
+    @Column(length = 4000)
+    private String payload;
+
+    private LocalDateTime createdAt;
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    private int attempts;
+    @Column(length = 500)
+    private String lastError;
+    // A failed event and the rest of its aggregate wait until then
+    private LocalDateTime nextAttemptAt;
+    // Set once max attempts are used up, a parked event is never retried and no longer holds its aggregate back
+    private LocalDateTime parkedAt;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getId() != 0 && getId() == ((OutboxEvent) o).getId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getId());
+    }
+}
@@ -1,33 +1,47 @@
 package org.sigar.model;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.sigar.Constants.enums.TransactionType;
 
 import java.time.LocalDate;
 
 @Entity
-@Data
-public class PaymentTransaction {
+@Getter
+@Setter
+@ToString
+@Table(indexes = {
+        @Index(name = "idx_payment_transaction_contract_date", columnList = "rental_contract_id, transaction_date, transaction_id"),
+        @Index(name = "idx_payment_transaction_date", columnList = "transaction_date, transaction_id")
+})
+@EntityListeners(PropertyStampListener.class)
+public class PaymentTransaction implements PropertyScoped {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "transaction_id")
     private long transactionID;
 
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rental_contract_id",referencedColumnName = "rental_contract_id")
-    @JsonBackReference
+    @ToString.Exclude
     private RentalContract rentalContract;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id",referencedColumnName = "room_id")
+    @ToString.Exclude
     private Room room;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "guest_id",referencedColumnName = "guest_id")
+    @ToString.Exclude
     private Guest guest;
 
+    @Column(name = "transaction_date")
     private LocalDate transactionDate;
 
     @Enumerated(EnumType.STRING)
@@ -45,4 +59,16 @@ public class PaymentTransaction {
         transaction.notes = notes;
         return transaction;
     }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getTransactionID() != 0 && getTransactionID() == ((PaymentTransaction) o).getTransactionID();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getTransactionID());
+    }
 }
@@ -0,0 +1,8 @@
+package org.sigar.model;
+
+// Entities that belong to one PG building, stamped by PropertyStampListener when first persisted
+public interface PropertyScoped {
+    String getPropertyId();
+
+    void setPropertyId(String propertyId);
+}
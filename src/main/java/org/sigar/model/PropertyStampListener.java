@@ -0,0 +1,15 @@
+package org.sigar.model;
+
+import jakarta.persistence.PrePersist;
+import org.sigar.configs.PropertyContext;
+
+public class PropertyStampListener {
+
+    // The row always carries the property whose database it is written to, whatever the request body said
+    @PrePersist
+    public void stamp(Object entity) {
+        if (entity instanceof PropertyScoped scoped) {
+            scoped.setPropertyId(PropertyContext.current());
+        }
+    }
+}
@@ -1,49 +1,65 @@
 package org.sigar.model;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Entity
-@Data
-public class RentalContract {
+@Getter
+@Setter
+@ToString
+@Table(indexes = @Index(name = "idx_rental_contract_rent_due_date", columnList = "rent_due_date"))
+@EntityListeners(PropertyStampListener.class)
+public class RentalContract implements PropertyScoped {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "rental_contract_id")
     private long id;
 
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
     @OneToOne
     @JoinColumn(name = "room_id", referencedColumnName = "room_id")
+    @ToString.Exclude
     private Room room;
 
     @OneToOne
     @JoinColumn(name = "guest_id")
+    @ToString.Exclude
     private Guest guest;
 
-    @OneToMany(mappedBy = "rentalContract",cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JsonManagedReference
-    private List<PaymentTransaction> transactions;
-
+    // Transactions are not mapped as a collection here, a long stay would pull the whole history into memory.
+    // Use PaymentService.getTransactionHistory to page through them instead.
 
     private Integer roomNumber;
     private String guestName;
     private Integer advanceAmountPaid;
+    @Column(name = "rent_due_date")
     private LocalDate rentDueDate;
     private Double monthlyRentAmount;
 
-//     Methods to check rent due date, update payment, etc.
-//     public void  updateRentDueDate() {
-//        this.rentDueDate = rentDueDate.plusMonths(1);
-//    }
-//
+    public void updateRentDueDate() {
+        this.rentDueDate = rentDueDate.plusMonths(1);
+    }
+
 //    public boolean isRentDue() {
 //        return LocalDate.now().isAfter(rentDueDate);
 //    }
 
-}
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getId() != 0 && getId() == ((RentalContract) o).getId();
+    }
 
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getId());
+    }
+}
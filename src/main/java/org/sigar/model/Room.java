@@ -4,22 +4,32 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.sigar.Constants.enums.Beds;
 
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
-public class Room {
+@EntityListeners(PropertyStampListener.class)
+public class Room implements PropertyScoped {
 
     @Id
     @GeneratedValue(strategy =  GenerationType.IDENTITY)
     @Column(name = "room_id")
     private long roomId;
+
+    @Column(name = "property_id", length = 32)
+    private String propertyId;
+
 // change int to Integer todo
     private int roomNumber;
     private int floor;
@@ -36,7 +46,8 @@ public class Room {
     @JsonManagedReference
 //    @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.LAZY)(all will include the delete operations too)
     @OneToMany(mappedBy = "room", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
-    List<Guest> guests;
+    @ToString.Exclude
+    Set<Guest> guests = new HashSet<>();
 
     public Room(long roomId,int roomNumber,int floor){
         this.roomId  = roomId;
@@ -55,4 +66,16 @@ public class Room {
         this.setAvailable(true);
         guest.setRoom(null);
     }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!EntityIdentity.sameType(this, o)) return false;
+        return getRoomId() != 0 && getRoomId() == ((Room) o).getRoomId();
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(getRoomId());
+    }
 }
@@ -0,0 +1,28 @@
+package org.sigar.repo;
+
+import org.sigar.model.ArchivedGuestStay;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedGuestStayRepository extends JpaRepository<ArchivedGuestStay, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into guest_stay_archive " +
+            "(guest_stay_id, property_id, guest_id, guest_name, room_id, room_number, check_in, check_out) " +
+            "select s.guest_stay_id, s.property_id, s.guest_id, s.guest_name, s.room_id, s.room_number, s.check_in, s.check_out " +
+            "from guest_stay s where s.guest_stay_id in (:stayIds)")
+    int copyFromHot(@Param("stayIds") Collection<Long> stayIds);
+
+    List<ArchivedGuestStay> findByIdGreaterThanOrderById(long afterId, Pageable pageable);
+
+    @Query("select a.checkIn as day, count(a) as guests from ArchivedGuestStay a group by a.checkIn")
+    List<GuestStayRepository.ArrivalView> countCheckInsByDay();
+}
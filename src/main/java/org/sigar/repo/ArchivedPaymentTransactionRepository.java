@@ -0,0 +1,65 @@
+package org.sigar.repo;
+
+import org.sigar.model.ArchivedPaymentTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+// Reads return the projections of PaymentTransactionRepository, so callers can merge hot and archived rows
+@Repository
+public interface ArchivedPaymentTransactionRepository extends JpaRepository<ArchivedPaymentTransaction, Long> {
+
+    // Copies the rows with the room number and guest name they point to, the hot rows are deleted afterwards
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into payment_transaction_archive " +
+            "(transaction_id, property_id, rental_contract_id, room_id, room_number, guest_id, guest_name, " +
+            "transaction_date, transaction_type, notes, amount) " +
+            "select t.transaction_id, t.property_id, t.rental_contract_id, t.room_id, r.room_number, t.guest_id, g.name, " +
+            "t.transaction_date, t.transaction_type, t.notes, t.amount " +
+            "from payment_transaction t left join room r on r.room_id = t.room_id left join guest g on g.guest_id = t.guest_id " +
+            "where t.transaction_id in (:transactionIds)")
+    int copyFromHot(@Param("transactionIds") Collection<Long> transactionIds);
+
+    @Query("select max(a.transactionDate) from ArchivedPaymentTransaction a")
+    LocalDate findLatestTransactionDate();
+
+    @Query("select coalesce(sum(a.amount), 0) from ArchivedPaymentTransaction a")
+    long sumAmounts();
+
+    @Query("select a.rentalContractId as rentalContractId, count(a) as transactions, coalesce(sum(a.amount), 0) as amount " +
+            "from ArchivedPaymentTransaction a group by a.rentalContractId")
+    List<PaymentTransactionRepository.ContractTotalView> sumAmountsByContract();
+
+    @Query("select a.transactionId as transactionId, a.rentalContractId as rentalContractId, " +
+            "a.transactionDate as transactionDate, a.amount as amount, a.transactionType as transactionType " +
+            "from ArchivedPaymentTransaction a where a.transactionId > :afterId order by a.transactionId")
+    List<PaymentTransactionRepository.JournalEntryView> findJournalEntriesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select a.rentalContractId as rentalContractId, a.transactionId as transactionId, a.transactionDate as transactionDate, " +
+            "a.transactionType as transactionType, a.amount as amount, a.notes as notes " +
+            "from ArchivedPaymentTransaction a " +
+            "where a.rentalContractId in :contractIds and a.transactionDate between :from and :to")
+    List<PaymentTransactionRepository.StatementLineView> findStatementLines(@Param("contractIds") Collection<Long> contractIds,
+                                                                           @Param("from") LocalDate from,
+                                                                           @Param("to") LocalDate to);
+
+    // Same keyset order as the hot history queries
+    @Query("select a from ArchivedPaymentTransaction a where a.rentalContractId = :contractId " +
+            "order by a.transactionDate desc, a.transactionId desc")
+    List<ArchivedPaymentTransaction> findLatestByContract(@Param("contractId") long contractId, Pageable pageable);
+
+    @Query("select a from ArchivedPaymentTransaction a where a.rentalContractId = :contractId " +
+            "and (a.transactionDate < :beforeDate or (a.transactionDate = :beforeDate and a.transactionId < :beforeId)) " +
+            "order by a.transactionDate desc, a.transactionId desc")
+    List<ArchivedPaymentTransaction> findByContractBefore(@Param("contractId") long contractId,
+                                                          @Param("beforeDate") LocalDate beforeDate,
+                                                          @Param("beforeId") long beforeId,
+                                                          Pageable pageable);
+}
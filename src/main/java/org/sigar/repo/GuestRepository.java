@@ -1,15 +1,73 @@
 package org.sigar.repo;
 
+import org.sigar.Constants.enums.Beds;
 import org.sigar.model.Guest;
 import org.springframework.cglib.core.Local;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GuestRepository extends JpaRepository<Guest,Long> {
+    // Listings load the room with the guest, the DTO is built after the session is closed (open-in-view is off in prod)
+    @EntityGraph(attributePaths = "room")
     public List<Guest> findByDateOfOccupancyBetween(LocalDate startDate, LocalDate endDate);
+    @EntityGraph(attributePaths = "room")
     public List<Guest> findByAgeBetween(Integer startAge,Integer endAge);
+
+    @EntityGraph(attributePaths = "room")
+    @Query("select g from Guest g")
+    List<Guest> findAllWithRoom();
+
+    // Carries what the occupancy counters need to take the guests out again, roomAvailable is read before checkout
+    @Query("select g.guestId as guestId, g.dateOfOccupancy as dateOfOccupancy, r.roomId as roomId, r.floor as floor, " +
+            "r.beds as beds, r.isAvailable as roomAvailable from Guest g left join g.room r where g.guestId in :guestIds")
+    List<GuestCheckoutView> findGuestRoomsByGuestIdIn(@Param("guestIds") Collection<Long> guestIds);
+
+    @Query("select g.guestId as guestId, g.room.roomId as roomId from Guest g where g.room.roomId in :roomIds")
+    List<GuestRoomView> findGuestRoomsByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    // Bulk statements bypass the persistence context, so flush pending changes first and clear it afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Guest g where g.guestId in :guestIds")
+    int deleteByGuestIdIn(@Param("guestIds") Collection<Long> guestIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Guest g where g.room.roomId in :roomIds")
+    int deleteByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Guest g set g.room = null where g.room.roomId in :roomIds")
+    int detachFromRooms(@Param("roomIds") Collection<Long> roomIds);
+
+    interface GuestRoomView {
+        Long getGuestId();
+        Long getRoomId();
+    }
+
+    interface GuestCheckoutView extends GuestRoomView {
+        LocalDate getDateOfOccupancy();
+        Integer getFloor();
+        Beds getBeds();
+        Boolean getRoomAvailable();
+    }
+
+    @Query("select g.guestId as guestId, g.name as name, r.roomId as roomId, r.roomNumber as roomNumber, " +
+            "g.dateOfOccupancy as dateOfOccupancy from Guest g join g.room r")
+    List<CurrentStayView> findCurrentStays();
+
+    interface CurrentStayView {
+        Long getGuestId();
+        String getName();
+        Long getRoomId();
+        Integer getRoomNumber();
+        LocalDate getDateOfOccupancy();
+    }
 }
@@ -0,0 +1,48 @@
+package org.sigar.repo;
+
+import org.sigar.model.GuestStay;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GuestStayRepository extends JpaRepository<GuestStay, Long> {
+
+    List<GuestStay> findByIdGreaterThanOrderById(long afterId, Pageable pageable);
+
+    // Every check-in opened a stay, checkouts only close it, so this counts arrivals of guests long gone too
+    @Query("select s.checkIn as day, count(s) as guests from GuestStay s group by s.checkIn")
+    List<ArrivalView> countCheckInsByDay();
+
+    interface ArrivalView {
+        LocalDate getDay();
+        Long getGuests();
+    }
+
+    // Closed stays only, open stays have no check-out date
+    @Query("select s.id from GuestStay s where s.checkOut < :horizon order by s.checkOut, s.id")
+    List<Long> findIdsEndedBefore(@Param("horizon") LocalDate horizon, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from GuestStay s where s.id in :stayIds")
+    int deleteByIdIn(@Param("stayIds") Collection<Long> stayIds);
+
+    @Query("select s from GuestStay s where s.guestId in :guestIds and s.checkOut is null")
+    List<GuestStay> findOpenStaysByGuestIdIn(@Param("guestIds") Collection<Long> guestIds);
+
+    @Query("select s from GuestStay s where s.roomId in :roomIds and s.checkOut is null")
+    List<GuestStay> findOpenStaysByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    // A stay never ends before it started, even when the date of occupancy was set in the future
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update GuestStay s set s.checkOut = case when s.checkIn > :checkOut then s.checkIn else :checkOut end " +
+            "where s.id in :stayIds")
+    int closeStays(@Param("stayIds") Collection<Long> stayIds, @Param("checkOut") LocalDate checkOut);
+}
@@ -0,0 +1,21 @@
+package org.sigar.repo;
+
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.model.MeterReading;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Readings arrive every few minutes per room and meter, so they bypass the persistence context and go
+// through JDBC batches
+public interface MeterReadingBatchRepository {
+
+    // A reading sent again for the same room, meter and time replaces the stored value
+    void upsertAll(Collection<MeterReading> readings);
+
+    void deleteReadings(long roomId, MeterType meterType, Collection<LocalDateTime> readAt);
+
+    // Streams every reading of the current property in primary key order, oldest first
+    void forEachReading(Consumer<MeterReading> consumer);
+}
@@ -0,0 +1,56 @@
+package org.sigar.repo;
+
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.configs.PropertyContext;
+import org.sigar.model.MeterReading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+class MeterReadingBatchRepositoryImpl implements MeterReadingBatchRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterReadingBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(Collection<MeterReading> readings) {
+        String propertyId = PropertyContext.current();
+        List<Object[]> rows = readings.stream()
+                .map(reading -> new Object[]{reading.getRoomId(), reading.getMeterType().name(),
+                        Timestamp.valueOf(reading.getReadAt()), propertyId, reading.getReading()})
+                .toList();
+        jdbcTemplate.batchUpdate("merge into meter_reading (room_id, meter_type, read_at, property_id, reading) " +
+                "key (room_id, meter_type, read_at) values (?, ?, ?, ?, ?)", rows);
+    }
+
+    @Override
+    public void deleteReadings(long roomId, MeterType meterType, Collection<LocalDateTime> readAt) {
+        List<Object[]> rows = readAt.stream()
+                .map(time -> new Object[]{roomId, meterType.name(), Timestamp.valueOf(time)})
+                .toList();
+        jdbcTemplate.batchUpdate("delete from meter_reading where room_id = ? and meter_type = ? and read_at = ?", rows);
+    }
+
+    @Override
+    public void forEachReading(Consumer<MeterReading> consumer) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        streaming.query("select room_id, meter_type, read_at, property_id, reading from meter_reading " +
+                        "order by read_at, room_id, meter_type",
+                resultSet -> {
+                    consumer.accept(new MeterReading(resultSet.getLong(1), MeterType.valueOf(resultSet.getString(2)),
+                            resultSet.getTimestamp(3).toLocalDateTime(), resultSet.getString(4), resultSet.getDouble(5)));
+                });
+    }
+}
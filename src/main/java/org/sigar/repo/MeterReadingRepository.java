@@ -0,0 +1,9 @@
+package org.sigar.repo;
+
+import org.sigar.model.MeterReading;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MeterReadingRepository extends JpaRepository<MeterReading, MeterReading.Key>, MeterReadingBatchRepository {
+}
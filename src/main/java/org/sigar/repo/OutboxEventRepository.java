@@ -0,0 +1,37 @@
+package org.sigar.repo;
+
+import org.sigar.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Skips parked events and every aggregate waiting out a retry backoff, so one failing aggregate never
+    // fills the batch and starves the others
+    @Query("select e from OutboxEvent e where e.publishedAt is null and e.parkedAt is null " +
+            "and not exists (select w.id from OutboxEvent w where w.publishedAt is null and w.parkedAt is null " +
+            "and w.nextAttemptAt > :now and (w.id = e.id or (w.aggregateType = e.aggregateType and w.aggregateId = e.aggregateId))) " +
+            "order by e.id")
+    List<OutboxEvent> findDeliverable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("select count(e) from OutboxEvent e where e.publishedAt is null and e.parkedAt is null")
+    long countUnpublished();
+
+    @Query("select count(e) from OutboxEvent e where e.parkedAt is not null")
+    long countParked();
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.publishedAt is null and e.parkedAt is null")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
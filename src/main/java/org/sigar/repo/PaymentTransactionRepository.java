@@ -1,9 +1,92 @@
 package org.sigar.repo;
 
+import org.sigar.Constants.enums.TransactionType;
 import org.sigar.model.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction,Long> {
+
+    @Query("select coalesce(sum(t.amount), 0) from PaymentTransaction t")
+    long sumAmounts();
+
+    // Oldest first over idx_payment_transaction_date, the archive job moves them in batches
+    @Query("select t.transactionID from PaymentTransaction t where t.transactionDate < :horizon " +
+            "order by t.transactionDate, t.transactionID")
+    List<Long> findIdsOlderThan(@Param("horizon") LocalDate horizon, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from PaymentTransaction t where t.transactionID in :transactionIds")
+    int deleteByTransactionIdIn(@Param("transactionIds") Collection<Long> transactionIds);
+
+    @Query("select t.transactionID as transactionId, c.id as rentalContractId, " +
+            "t.transactionDate as transactionDate, t.amount as amount, t.transactionType as transactionType " +
+            "from PaymentTransaction t left join t.rentalContract c where t.transactionID > :afterId order by t.transactionID")
+    List<JournalEntryView> findJournalEntriesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select distinct c.id from PaymentTransaction t join t.rentalContract c " +
+            "where t.transactionType = :transactionType and t.notes = :notes")
+    List<Long> findContractIdsByTypeAndNotes(@Param("transactionType") TransactionType transactionType,
+                                             @Param("notes") String notes);
+
+    @Query("select c.id as rentalContractId, count(t) as transactions, coalesce(sum(t.amount), 0) as amount " +
+            "from PaymentTransaction t left join t.rentalContract c group by c.id")
+    List<ContractTotalView> sumAmountsByContract();
+
+    interface JournalEntryView {
+        Long getTransactionId();
+        Long getRentalContractId();
+        LocalDate getTransactionDate();
+        Integer getAmount();
+        TransactionType getTransactionType();
+    }
+
+    interface ContractTotalView {
+        Long getRentalContractId();
+        Long getTransactions();
+        Long getAmount();
+    }
+
+    // One query per batch of contracts, range scans over idx_payment_transaction_contract_date
+    @Query("select c.id as rentalContractId, t.transactionID as transactionId, t.transactionDate as transactionDate, " +
+            "t.transactionType as transactionType, t.amount as amount, t.notes as notes " +
+            "from PaymentTransaction t join t.rentalContract c " +
+            "where c.id in :contractIds and t.transactionDate between :from and :to " +
+            "order by c.id, t.transactionDate, t.transactionID")
+    List<StatementLineView> findStatementLines(@Param("contractIds") Collection<Long> contractIds,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    interface StatementLineView {
+        Long getRentalContractId();
+        Long getTransactionId();
+        LocalDate getTransactionDate();
+        TransactionType getTransactionType();
+        Integer getAmount();
+        String getNotes();
+    }
+
+    // Keyset pagination over idx_payment_transaction_contract_date, newest transactions first
+    @Query("select t from PaymentTransaction t left join fetch t.room left join fetch t.guest " +
+            "where t.rentalContract.id = :contractId " +
+            "order by t.transactionDate desc, t.transactionID desc")
+    List<PaymentTransaction> findLatestByContract(@Param("contractId") long contractId, Pageable pageable);
+
+    @Query("select t from PaymentTransaction t left join fetch t.room left join fetch t.guest " +
+            "where t.rentalContract.id = :contractId " +
+            "and (t.transactionDate < :beforeDate or (t.transactionDate = :beforeDate and t.transactionID < :beforeId)) " +
+            "order by t.transactionDate desc, t.transactionID desc")
+    List<PaymentTransaction> findByContractBefore(@Param("contractId") long contractId,
+                                                  @Param("beforeDate") LocalDate beforeDate,
+                                                  @Param("beforeId") long beforeId,
+                                                  Pageable pageable);
 }
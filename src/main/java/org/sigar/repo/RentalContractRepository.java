@@ -1,9 +1,49 @@
 package org.sigar.repo;
 
 import org.sigar.model.RentalContract;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface RentalContractRepository extends JpaRepository<RentalContract,Long> {
+
+    // Range scan over idx_rental_contract_rent_due_date, only the two columns the overdue scheduler needs
+    @Query("select c.id as id, c.rentDueDate as rentDueDate from RentalContract c " +
+            "where c.rentDueDate is not null order by c.rentDueDate")
+    List<DueDateView> findAllDueDates();
+
+    interface DueDateView {
+        Long getId();
+        LocalDate getRentDueDate();
+    }
+
+    // Contracts of rooms in id order, for billing metered utilities
+    @Query("select c.id as id, r.roomId as roomId from RentalContract c join c.room r order by c.id")
+    List<MeteredContractView> findContractsWithRoom();
+
+    interface MeteredContractView {
+        Long getId();
+        Long getRoomId();
+    }
+
+    // Keyset batches in id order, only the columns a monthly statement prints
+    @Query("select c.id as id, c.roomNumber as roomNumber, c.guestName as guestName, " +
+            "c.advanceAmountPaid as advanceAmountPaid, c.monthlyRentAmount as monthlyRentAmount, c.rentDueDate as rentDueDate " +
+            "from RentalContract c where c.id > :afterId order by c.id")
+    List<StatementContractView> findStatementContractsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    interface StatementContractView {
+        Long getId();
+        Integer getRoomNumber();
+        String getGuestName();
+        Integer getAdvanceAmountPaid();
+        Double getMonthlyRentAmount();
+        LocalDate getRentDueDate();
+    }
 }
@@ -1,7 +1,54 @@
 package org.sigar.repo;
 
+import org.sigar.Constants.enums.Beds;
 import org.sigar.model.Room;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface RoomRepository  extends JpaRepository<Room,Long> {
+
+    @Query("select r from Room r where r.isAvailable = true")
+    List<Room> findAvailableRooms();
+
+    // The room listing names the guests after the session is closed (open-in-view is off in prod)
+    @EntityGraph(attributePaths = "guests")
+    @Query("select r from Room r")
+    List<Room> findAllWithGuests();
+
+    @Query("select count(r) from Room r where r.isAvailable = true")
+    long countAvailableRooms();
+
+    @Query("select r.floor as floor, r.beds as beds, count(distinct r.roomId) as rooms, " +
+            "count(distinct case when r.isAvailable = true then r.roomId end) as availableRooms, count(g.guestId) as residents " +
+            "from Room r left join r.guests g group by r.floor, r.beds")
+    List<OccupancyView> aggregateOccupancy();
+
+    interface OccupancyView {
+        Integer getFloor();
+        Beds getBeds();
+        Long getRooms();
+        Long getAvailableRooms();
+        Long getResidents();
+    }
+
+    @Query("select r.roomId from Room r where r.roomId in :roomIds")
+    List<Long> findExistingRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    @Query("select r.roomId from Room r where r.floor = :floor")
+    List<Long> findRoomIdsByFloor(@Param("floor") int floor);
+
+    // Bulk statements bypass the persistence context, so flush pending changes first and clear it afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Room r set r.isAvailable = true where r.roomId in :roomIds")
+    int markAvailable(@Param("roomIds") Collection<Long> roomIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Room r where r.roomId in :roomIds")
+    int deleteByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
 }
@@ -0,0 +1,209 @@
+package org.sigar.service;
+
+import org.sigar.configs.AdmissionProperties;
+import org.sigar.dto.AdmissionMetricsDTO;
+import org.sigar.dto.RouteAdmissionMetricsDTO;
+import org.sigar.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides before a handler runs whether a request may go on. Every check is a lock-free token bucket or
+ * counter, so a rejected request costs no connection and no queueing; it gets 429 with the time after which
+ * the bucket that refused it has enough tokens again.
+ */
+@Service
+@Lazy(false)
+public class AdmissionControlService {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    public record Admission(boolean admitted, boolean write, long retryAfterSeconds) {
+        static final Admission UNCHECKED = new Admission(true, false, 0);
+    }
+
+    private record ClientKey(String route, String clientId) {
+    }
+
+    private final AdmissionProperties properties;
+    private final TokenBucket globalWrites;
+    private final AtomicInteger inFlightWrites = new AtomicInteger();
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+    private final Map<ClientKey, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdmissionControlService(AdmissionProperties properties) {
+        this.properties = properties;
+        long now = System.nanoTime();
+        this.globalWrites = bucketOf(properties.getGlobalWrites(), now);
+        for (AdmissionProperties.Route route : properties.getRoutes()) {
+            String method = route.getMethod().toUpperCase();
+            checkCostFits(route, method);
+            routes.put(keyOf(method, route.getPattern()), new RouteState(method, route.getPattern(), route.getCost(),
+                    route.getGlobal() != null ? bucketOf(route.getGlobal(), now) : null,
+                    route.getPerClient() != null ? route.getPerClient() : defaultClientLimit(method)));
+        }
+    }
+
+    public Admission admit(String method, String pattern, String clientId) {
+        if (!properties.isEnabled() || pattern == null) {
+            return Admission.UNCHECKED;
+        }
+        RouteState route = routeOf(method, pattern);
+        boolean write = !READ_METHODS.contains(route.method);
+
+        if (write && inFlightWrites.incrementAndGet() > properties.getMaxConcurrentWrites()) {
+            inFlightWrites.decrementAndGet();
+            route.rejectedConcurrency.increment();
+            return new Admission(false, true, 1);
+        }
+        long wait = acquire(route, clientId, route.cost, write);
+        if (wait > 0) {
+            if (write) {
+                inFlightWrites.decrementAndGet();
+            }
+            return new Admission(false, write, retryAfterSeconds(wait));
+        }
+        route.admitted.increment();
+        return new Admission(true, write, 0);
+    }
+
+    /**
+     * Charges an admitted request for work only its body tells, e.g. the operations of a batch past the first:
+     * the route's cost once per unit from the same buckets. The request keeps the concurrency slot it holds.
+     */
+    public Admission charge(String method, String pattern, String clientId, int units) {
+        if (!properties.isEnabled() || pattern == null || units < 1) {
+            return Admission.UNCHECKED;
+        }
+        RouteState route = routeOf(method, pattern);
+        long wait = acquire(route, clientId, route.cost * units, !READ_METHODS.contains(route.method));
+        return wait > 0 ? new Admission(false, false, retryAfterSeconds(wait)) : Admission.UNCHECKED;
+    }
+
+    public void release(Admission admission) {
+        if (admission.admitted() && admission.write()) {
+            inFlightWrites.decrementAndGet();
+        }
+    }
+
+    // A full bucket holds no state worth keeping, it is recreated full on the client's next request
+    @Scheduled(fixedDelayString = "${pg2.admission.client-eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public AdmissionMetricsDTO getMetrics() {
+        long now = System.nanoTime();
+        List<RouteAdmissionMetricsDTO> routeMetrics = routes.values().stream()
+                .sorted(Comparator.comparing((RouteState route) -> route.pattern).thenComparing(route -> route.method))
+                .map(route -> new RouteAdmissionMetricsDTO(route.method, route.pattern, route.cost,
+                        route.admitted.sum(), route.rejectedPerClient.sum(), route.rejectedRoute.sum(),
+                        route.rejectedGlobal.sum(), route.rejectedConcurrency.sum(),
+                        route.bucket != null ? route.bucket.availableTokens(now) : null))
+                .toList();
+        return new AdmissionMetricsDTO(properties.isEnabled(), inFlightWrites.get(), properties.getMaxConcurrentWrites(),
+                globalWrites.availableTokens(now), clientBuckets.size(), routeMetrics);
+    }
+
+    private RouteState routeOf(String method, String pattern) {
+        String normalizedMethod = method.toUpperCase();
+        String normalizedPattern = pattern.replace("/{propertyId}", "");
+        return routes.computeIfAbsent(keyOf(normalizedMethod, normalizedPattern), k -> new RouteState(normalizedMethod,
+                normalizedPattern, 1, null, defaultClientLimit(normalizedMethod)));
+    }
+
+    // Takes the tokens from the client, route and global write buckets, or nothing and returns the nanoseconds
+    // until the bucket that refused has them
+    private long acquire(RouteState route, String clientId, int tokens, boolean write) {
+        long now = System.nanoTime();
+        TokenBucket clientBucket = route.perClient == null ? null
+                : clientBuckets.computeIfAbsent(new ClientKey(keyOf(route.method, route.pattern), clientId),
+                        k -> bucketOf(route.perClient, now));
+        long wait;
+        if (clientBucket != null && (wait = clientBucket.tryAcquire(tokens, now)) > 0) {
+            route.rejectedPerClient.increment();
+            return wait;
+        }
+        if (route.bucket != null && (wait = route.bucket.tryAcquire(tokens, now)) > 0) {
+            refund(clientBucket, tokens, now);
+            route.rejectedRoute.increment();
+            return wait;
+        }
+        if (write && (wait = globalWrites.tryAcquire(tokens, now)) > 0) {
+            refund(clientBucket, tokens, now);
+            refund(route.bucket, tokens, now);
+            route.rejectedGlobal.increment();
+            return wait;
+        }
+        return 0;
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // A bucket never holds more than its burst, a route costing more would be refused every time
+    private void checkCostFits(AdmissionProperties.Route route, String method) {
+        AdmissionProperties.Limit perClient = route.getPerClient() != null ? route.getPerClient() : defaultClientLimit(method);
+        boolean write = !READ_METHODS.contains(method);
+        for (AdmissionProperties.Limit limit : new AdmissionProperties.Limit[]{route.getGlobal(), perClient,
+                write ? properties.getGlobalWrites() : null}) {
+            if (limit != null && route.getCost() > limit.getBurst()) {
+                throw new IllegalArgumentException("Admission route " + method + " " + route.getPattern() + " costs "
+                        + route.getCost() + " tokens, more than a burst of " + limit.getBurst());
+            }
+        }
+    }
+
+    private AdmissionProperties.Limit defaultClientLimit(String method) {
+        return READ_METHODS.contains(method) ? null : properties.getClientWrites();
+    }
+
+    private static void refund(TokenBucket bucket, int tokens, long now) {
+        if (bucket != null) {
+            bucket.refund(tokens, now);
+        }
+    }
+
+    private static TokenBucket bucketOf(AdmissionProperties.Limit limit, long now) {
+        return new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), now);
+    }
+
+    private static String keyOf(String method, String pattern) {
+        return method + " " + pattern;
+    }
+
+    private static final class RouteState {
+        private final String method;
+        private final String pattern;
+        private final int cost;
+        private final TokenBucket bucket;
+        private final AdmissionProperties.Limit perClient;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejectedPerClient = new LongAdder();
+        private final LongAdder rejectedRoute = new LongAdder();
+        private final LongAdder rejectedGlobal = new LongAdder();
+        private final LongAdder rejectedConcurrency = new LongAdder();
+
+        private RouteState(String method, String pattern, int cost, TokenBucket bucket, AdmissionProperties.Limit perClient) {
+            this.method = method;
+            this.pattern = pattern;
+            this.cost = cost;
+            this.bucket = bucket;
+            this.perClient = perClient;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.ArchiveRunDTO;
+import org.sigar.dto.ArchiveStatusDTO;
+import org.sigar.repo.ArchivedGuestStayRepository;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
+import org.sigar.repo.GuestStayRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hot/cold tiering. Payment transactions dated before the horizon and stays that ended before it are moved into
+ * archive tables in small batches, each copy-and-delete in its own short transaction with a pause in between,
+ * so live requests never wait for more than one batch. Readers of old data (transaction history, statements,
+ * journal checks, stay history) include the archive, the date based ones only when their range reaches into it.
+ */
+@Service
+@Lazy(false)
+public class ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final PaymentTransactionRepository transactionRepository;
+    private final ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    private final GuestStayRepository stayRepository;
+    private final ArchivedGuestStayRepository archivedStayRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    // Upper bound of the transaction dates in the archive per property, empty while nothing is archived
+    private final Map<String, Optional<LocalDate>> transactionsArchivedThrough = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ArchiveService(PaymentTransactionRepository transactionRepository,
+                          ArchivedPaymentTransactionRepository archivedTransactionRepository,
+                          GuestStayRepository stayRepository,
+                          ArchivedGuestStayRepository archivedStayRepository,
+                          PropertyRegistry propertyRegistry,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${pg2.archive.enabled:true}") boolean enabled,
+                          @Value("${pg2.archive.horizon-days:730}") int horizonDays,
+                          @Value("${pg2.archive.batch-size:500}") int batchSize,
+                          @Value("${pg2.archive.batch-pause-ms:50}") long batchPauseMillis) {
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.stayRepository = stayRepository;
+        this.archivedStayRepository = archivedStayRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${pg2.archive.interval-ms:3600000}", initialDelayString = "${pg2.archive.initial-delay-ms:300000}")
+    public void archiveAllProperties() {
+        if (!enabled) {
+            return;
+        }
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyContext.runIn(propertyId, this::archive);
+        }
+    }
+
+    // Empty when a run of the current property is already in progress
+    public Optional<ArchiveRunDTO> archive() {
+        String propertyId = PropertyContext.current();
+        if (!running.add(propertyId)) {
+            return Optional.empty();
+        }
+        try {
+            LocalDate horizon = horizon();
+            long start = System.nanoTime();
+            int[] batches = new int[1];
+            long transactions = moveInBatches(
+                    () -> transactionRepository.findIdsOlderThan(horizon, PageRequest.of(0, batchSize)),
+                    ids -> {
+                        // Published before the first batch commits, readers may look into the archive a bit
+                        // early but never miss a moved row
+                        transactionsArchivedThrough.merge(propertyId, Optional.of(horizon.minusDays(1)), ArchiveService::later);
+                        return move(ids, archivedTransactionRepository::copyFromHot, transactionRepository::deleteByTransactionIdIn);
+                    },
+                    batches);
+            long stays = moveInBatches(
+                    () -> stayRepository.findIdsEndedBefore(horizon, PageRequest.of(0, batchSize)),
+                    ids -> move(ids, archivedStayRepository::copyFromHot, stayRepository::deleteByIdIn),
+                    batches);
+            ArchiveRunDTO run = new ArchiveRunDTO(propertyId, horizon, transactions, stays, batches[0],
+                    (System.nanoTime() - start) / 1_000_000);
+            if (transactions > 0 || stays > 0) {
+                logger.info("Archived {} transactions and {} stays of property {} older than {} in {} batches, {} ms",
+                        transactions, stays, propertyId, horizon, run.batches(), run.elapsedMillis());
+            }
+            return Optional.of(run);
+        } finally {
+            running.remove(propertyId);
+        }
+    }
+
+    public Optional<LocalDate> getTransactionsArchivedThrough() {
+        return transactionsArchivedThrough.computeIfAbsent(PropertyContext.current(),
+                propertyId -> Optional.ofNullable(archivedTransactionRepository.findLatestTransactionDate()));
+    }
+
+    // Whether transactions dated on or after the given day can be in the archive
+    public boolean archiveMayHoldTransactionsFrom(LocalDate from) {
+        return getTransactionsArchivedThrough().filter(through -> !from.isAfter(through)).isPresent();
+    }
+
+    public ArchiveStatusDTO getStatus() {
+        String propertyId = PropertyContext.current();
+        return new ArchiveStatusDTO(propertyId, enabled, running.contains(propertyId), horizon(),
+                transactionRepository.count(), archivedTransactionRepository.count(),
+                getTransactionsArchivedThrough().orElse(null),
+                stayRepository.count(), archivedStayRepository.count());
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().minusDays(horizonDays);
+    }
+
+    private long moveInBatches(Supplier<List<Long>> nextBatch, Function<List<Long>, Integer> move,
+                               int[] batches) {
+        long moved = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = nextBatch.get();
+                return ids.isEmpty() ? 0 : move.apply(ids);
+            });
+            if (count == null || count == 0) {
+                return moved;
+            }
+            moved += count;
+            batches[0]++;
+            if (!pause()) {
+                return moved;
+            }
+        }
+    }
+
+    // A row only leaves the hot table together with its archived copy
+    private static int move(List<Long> ids, Function<List<Long>, Integer> copy, Function<List<Long>, Integer> delete) {
+        int copied = copy.apply(ids);
+        int deleted = delete.apply(ids);
+        if (copied != deleted) {
+            throw new IllegalStateException("Archived " + copied + " rows but deleted " + deleted);
+        }
+        return deleted;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Optional<LocalDate> later(Optional<LocalDate> current, Optional<LocalDate> candidate) {
+        return current.isEmpty() || candidate.get().isAfter(current.get()) ? candidate : current;
+    }
+}
@@ -0,0 +1,204 @@
+package org.sigar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.sigar.configs.PropertyContext;
+import org.sigar.dto.CompositeOperationDTO;
+import org.sigar.dto.CompositeOperationResultDTO;
+import org.sigar.dto.CompositeResponseDTO;
+import org.sigar.dto.DTOConverter;
+import org.sigar.dto.PaymentTransactionResponseDTO;
+import org.sigar.dto.RentalContractResponseDTO;
+import org.sigar.model.Guest;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.model.RentalContract;
+import org.sigar.repo.GuestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.UriTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runs an ordered list of front-desk writes in one database transaction: register a guest, check a guest into a
+ * room, add a rental contract, record a payment. Each operation goes through the same service method as its
+ * single endpoint. The first failing operation rolls the whole batch back and the rest are not run.
+ */
+@Service
+public class CompositeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompositeService.class);
+
+    public static final String REFERENCE_PREFIX = "$ref:";
+    private static final UriTemplate ROOM_GUESTS = new UriTemplate("/rooms/{roomId}/guests");
+
+    private final GuestService guestService;
+    private final RoomService roomService;
+    private final PaymentService paymentService;
+    private final GuestRepository guestRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public CompositeService(GuestService guestService,
+                            RoomService roomService,
+                            PaymentService paymentService,
+                            GuestRepository guestRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.guestService = guestService;
+        this.roomService = roomService;
+        this.paymentService = paymentService;
+        this.guestRepository = guestRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CompositeResponseDTO execute(List<CompositeOperationDTO> operations) {
+        String propertyId = PropertyContext.current();
+        List<CompositeOperationResultDTO> results = new ArrayList<>();
+        try {
+            Boolean committed = transactionTemplate.execute(status -> {
+                Map<String, Long> references = new HashMap<>();
+                for (int index = 0; index < operations.size(); index++) {
+                    CompositeOperationDTO operation = operations.get(index);
+                    CompositeOperationResultDTO result = run(index, operation, references);
+                    results.add(result);
+                    if (result.status() >= 400) {
+                        status.setRollbackOnly();
+                        for (int skipped = index + 1; skipped < operations.size(); skipped++) {
+                            results.add(new CompositeOperationResultDTO(skipped, operations.get(skipped).referenceId(),
+                                    HttpStatus.FAILED_DEPENDENCY.value(), null, null, "Not run, operation " + index + " failed"));
+                        }
+                        return false;
+                    }
+                    if (operation.referenceId() != null) {
+                        references.put(operation.referenceId(), result.id());
+                    }
+                }
+                return true;
+            });
+            return new CompositeResponseDTO(propertyId, Boolean.TRUE.equals(committed), null, results);
+        } catch (RuntimeException e) {
+            // Every operation went through but the commit failed, e.g. a constraint checked at flush
+            logger.warn("Composite request of {} operations failed to commit", operations.size(), e);
+            return new CompositeResponseDTO(propertyId, false, e.getMessage(), results);
+        }
+    }
+
+    private CompositeOperationResultDTO run(int index, CompositeOperationDTO operation, Map<String, Long> references) {
+        try {
+            String path = resolvePath(operation.path(), references);
+            JsonNode body = resolve(operation.body() != null ? operation.body().deepCopy() : NullNode.getInstance(), references);
+            if (!"POST".equalsIgnoreCase(operation.method())) {
+                return failure(index, operation, HttpStatus.BAD_REQUEST, "Unsupported operation " + operation.method() + " " + path);
+            }
+            if (path.equals("/guests")) {
+                Guest savedGuest = guestService.addGuest(objectMapper.treeToValue(body, Guest.class));
+                return success(index, operation, HttpStatus.CREATED, savedGuest.getGuestId(), DTOConverter.covertToGuestDTO(savedGuest));
+            }
+            if (ROOM_GUESTS.matches(path)) {
+                return checkIn(index, operation, Long.parseLong(ROOM_GUESTS.match(path).get("roomId")),
+                        objectMapper.treeToValue(body, Guest.class));
+            }
+            if (path.equals("/payment/rentalContract")) {
+                RentalContractResponseDTO contract = paymentService.addRentalContract(objectMapper.treeToValue(body, RentalContract.class));
+                return success(index, operation, HttpStatus.OK, contract.id(), contract);
+            }
+            if (path.equals("/payment/transaction")) {
+                PaymentTransactionResponseDTO transaction = paymentService.addPaymentTransaction(
+                        objectMapper.treeToValue(body, PaymentTransaction.class));
+                return success(index, operation, HttpStatus.OK, transaction.transactionId(), transaction);
+            }
+            return failure(index, operation, HttpStatus.BAD_REQUEST, "Unsupported operation " + operation.method() + " " + path);
+        } catch (UnknownReferenceException | JsonProcessingException | IllegalArgumentException e) {
+            return failure(index, operation, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return failure(index, operation, HttpStatus.CONFLICT, "Conflicts with existing data, e.g. a second contract for the same room");
+        } catch (RuntimeException e) {
+            logger.warn("Composite operation {} {} failed", operation.method(), operation.path(), e);
+            return failure(index, operation, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    // A guest with an id is one registered before, possibly earlier in the same batch, and must not be in a room yet
+    private CompositeOperationResultDTO checkIn(int index, CompositeOperationDTO operation, long roomId, Guest guest) {
+        if (guest.getGuestId() != 0) {
+            Optional<Guest> registered = guestRepository.findById(guest.getGuestId());
+            if (registered.isEmpty()) {
+                return failure(index, operation, HttpStatus.NOT_FOUND, "Guest with ID " + guest.getGuestId() + " not found");
+            }
+            if (registered.get().getRoom() != null) {
+                return failure(index, operation, HttpStatus.CONFLICT, "Guest with ID " + guest.getGuestId() + " is already in a room");
+            }
+            guest = registered.get();
+        }
+        if (roomService.addGuestToRoom(roomId, guest).isEmpty()) {
+            return failure(index, operation, HttpStatus.NOT_FOUND, "Room with ID " + roomId + " not found");
+        }
+        return success(index, operation, HttpStatus.OK, guest.getGuestId(), DTOConverter.covertToGuestDTO(guest));
+    }
+
+    private static String resolvePath(String path, Map<String, Long> references) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/", -1)) {
+            segments.add(segment.startsWith(REFERENCE_PREFIX) ? String.valueOf(lookup(segment, references)) : segment);
+        }
+        return String.join("/", segments);
+    }
+
+    private static JsonNode resolve(JsonNode node, Map<String, Long> references) {
+        if (node.isTextual() && node.textValue().startsWith(REFERENCE_PREFIX)) {
+            return LongNode.valueOf(lookup(node.textValue(), references));
+        }
+        if (node instanceof ObjectNode object) {
+            for (Iterator<Map.Entry<String, JsonNode>> fields = object.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(resolve(field.getValue(), references));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, resolve(array.get(i), references));
+            }
+        }
+        return node;
+    }
+
+    private static long lookup(String reference, Map<String, Long> references) {
+        Long id = references.get(reference.substring(REFERENCE_PREFIX.length()));
+        if (id == null) {
+            throw new UnknownReferenceException("Unknown reference " + reference + ", it must name an earlier operation");
+        }
+        return id;
+    }
+
+    private static CompositeOperationResultDTO success(int index, CompositeOperationDTO operation, HttpStatus status, Long id, Object body) {
+        return new CompositeOperationResultDTO(index, operation.referenceId(), status.value(), id, body, null);
+    }
+
+    private static CompositeOperationResultDTO failure(int index, CompositeOperationDTO operation, HttpStatus status, String error) {
+        return new CompositeOperationResultDTO(index, operation.referenceId(), status.value(), null, null, error);
+    }
+
+    private static class UnknownReferenceException extends RuntimeException {
+        UnknownReferenceException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,51 +1,139 @@
 package org.sigar.service;
 
-import org.sigar.model.Guest;
-import org.sigar.model.Room;
+import org.sigar.Constants.enums.OutboxEventType;
+import org.sigar.dto.BulkOperationResultDTO;
+import org.sigar.events.GuestCheckoutPayload;
 import org.sigar.repo.GuestRepository;
 import org.sigar.repo.RoomRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class GuestRoomManager {
     private final GuestRepository guestRepository;
     private final RoomRepository roomRepository;
+    private final OutboxService outboxService;
+    private final OccupancyCounters occupancyCounters;
+    private final StayHistoryService stayHistoryService;
     private static final Logger logger = LoggerFactory.getLogger(GuestRoomManager.class);
 
     @Autowired
-    public GuestRoomManager(GuestRepository guestRepository, RoomRepository roomRepository) {
+    public GuestRoomManager(GuestRepository guestRepository, RoomRepository roomRepository,
+                            OutboxService outboxService, OccupancyCounters occupancyCounters,
+                            StayHistoryService stayHistoryService) {
         this.guestRepository = guestRepository;
         this.roomRepository = roomRepository;
+        this.outboxService = outboxService;
+        this.occupancyCounters = occupancyCounters;
+        this.stayHistoryService = stayHistoryService;
     }
+
+    @Transactional
     public boolean removeGuest(Long guestId){
-        Optional<Guest> guestOptional = guestRepository.findById(guestId);
-        if(guestOptional.isEmpty()){
+        if(checkoutGuests(List.of(guestId)).guestsRemoved() == 0){
             logger.info("No guest found with ID " + guestId);
             return false;
         }
-        Guest guest = guestOptional.get();
-        Room room = guest.getRoom();
-        if(room != null){
-            room.removeGuest(guest);
-            roomRepository.saveAndFlush(room);
-        }
-        guestRepository.deleteById(guestId);
         return true;
     }
+
+    @Transactional
     public boolean removeRoom(Long roomId){
-        Optional<Room> roomOptional = roomRepository.findById(roomId);
-        if(roomOptional.isEmpty()){
+        if(removeRooms(List.of(roomId)).roomsRemoved() == 0){
             logger.info("No room found with ID " + roomId);
             return false;
         }
-        Room room = roomOptional.get();
-        room.getGuests().forEach(guest -> guest.setRoom(null));
-        roomRepository.deleteById(roomId);;
         return true;
     }
+
+    // Rooms of the checked out guests are released first, then all guests are deleted with a single statement
+    @Transactional
+    public BulkOperationResultDTO checkoutGuests(Collection<Long> guestIds){
+        Set<Long> ids = new LinkedHashSet<>(guestIds);
+        if(ids.isEmpty()){
+            return BulkOperationResultDTO.empty(0);
+        }
+        List<GuestRepository.GuestCheckoutView> guestRooms = guestRepository.findGuestRoomsByGuestIdIn(ids);
+        List<Long> roomIds = guestRooms.stream()
+                .map(GuestRepository.GuestRoomView::getRoomId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        int roomsReleased = roomIds.isEmpty() ? 0 : roomRepository.markAvailable(roomIds);
+        stayHistoryService.checkedOut(ids);
+        int guestsRemoved = guestRepository.deleteByGuestIdIn(ids);
+        recordCheckouts(guestRooms);
+        if(guestsRemoved == guestRooms.size()){
+            occupancyCounters.guestsCheckedOut(guestRooms);
+        } else {
+            // A concurrent checkout deleted some of the loaded guests first, the loaded rows are not what was removed
+            occupancyCounters.reseedAfterCommit();
+        }
+        logger.info("Checked out {} of {} guests, released {} rooms", guestsRemoved, ids.size(), roomsReleased);
+        return new BulkOperationResultDTO(ids.size(), guestsRemoved, 0, roomsReleased, 0);
+    }
+
+    @Transactional
+    public BulkOperationResultDTO checkoutFloor(int floor){
+        List<Long> roomIds = roomRepository.findRoomIdsByFloor(floor);
+        if(roomIds.isEmpty()){
+            logger.info("No rooms found on floor " + floor);
+            return BulkOperationResultDTO.empty(0);
+        }
+        List<GuestRepository.GuestRoomView> guestRooms = guestRepository.findGuestRoomsByRoomIdIn(roomIds);
+        stayHistoryService.roomsRemoved(roomIds);
+        int guestsRemoved = guestRepository.deleteByRoomIdIn(roomIds);
+        int roomsReleased = roomRepository.markAvailable(roomIds);
+        recordCheckouts(guestRooms);
+        occupancyCounters.reseedAfterCommit();
+        logger.info("Checked out {} guests from floor {}, released {} rooms", guestsRemoved, floor, roomsReleased);
+        return new BulkOperationResultDTO(roomIds.size(), guestsRemoved, 0, roomsReleased, 0);
+    }
+
+    // Guests stay in the system without a room, matching the single room removal behaviour
+    @Transactional
+    public BulkOperationResultDTO removeRooms(Collection<Long> roomIds){
+        Set<Long> ids = new LinkedHashSet<>(roomIds);
+        if(ids.isEmpty()){
+            return BulkOperationResultDTO.empty(0);
+        }
+        stayHistoryService.roomsRemoved(ids);
+        int guestsDetached = guestRepository.detachFromRooms(ids);
+        int roomsRemoved = roomRepository.deleteByRoomIdIn(ids);
+        if(roomsRemoved > 0){
+            occupancyCounters.reseedAfterCommit();
+        }
+        logger.info("Removed {} of {} rooms, detached {} guests", roomsRemoved, ids.size(), guestsDetached);
+        return new BulkOperationResultDTO(ids.size(), 0, guestsDetached, 0, roomsRemoved);
+    }
+
+    @Transactional
+    public BulkOperationResultDTO removeFloor(int floor){
+        List<Long> roomIds = roomRepository.findRoomIdsByFloor(floor);
+        if(roomIds.isEmpty()){
+            logger.info("No rooms found on floor " + floor);
+            return BulkOperationResultDTO.empty(0);
+        }
+        return removeRooms(roomIds);
+    }
+
+    private void recordCheckouts(List<? extends GuestRepository.GuestRoomView> guestRooms){
+        LocalDate today = LocalDate.now();
+        Map<Long, GuestCheckoutPayload> payloads = new LinkedHashMap<>();
+        guestRooms.forEach(guestRoom -> payloads.put(guestRoom.getGuestId(),
+                new GuestCheckoutPayload(guestRoom.getGuestId(), guestRoom.getRoomId(), today)));
+        outboxService.recordAll(OutboxService.GUEST, OutboxEventType.GUEST_CHECKED_OUT, payloads);
+    }
 }
@@ -1,5 +1,6 @@
 package org.sigar.service;
 
+import org.sigar.dto.BulkOperationResultDTO;
 import org.sigar.dto.DTOConverter;
 import org.sigar.dto.GuestResponseDTO;
 import org.sigar.model.Guest;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,12 +18,15 @@ import java.util.Optional;
 public class GuestService {
     private final GuestRepository guestRepository;
     private final GuestRoomManager guestRoomManager;
+    private final QueryCoalescer queryCoalescer;
 
     @Autowired
     public GuestService(GuestRepository guestRepository,
-                        GuestRoomManager guestRoomManager){
+                        GuestRoomManager guestRoomManager,
+                        QueryCoalescer queryCoalescer){
         this.guestRepository = guestRepository;
         this.guestRoomManager = guestRoomManager;
+        this.queryCoalescer = queryCoalescer;
     }
     public Optional<Guest> getGuestById(Long guestId){
         return guestRepository.findById(guestId);
@@ -29,7 +34,8 @@ public class GuestService {
 
     public List<GuestResponseDTO> getAllGuests(){
         //List<Guest> guests =  guestRepository.findAll();
-        return DTOConverter.covertToGuestDTO(guestRepository.findAll());
+        return queryCoalescer.coalesce("guests.all", List.of(),
+                () -> DTOConverter.covertToGuestDTO(guestRepository.findAllWithRoom()));
     }
     public Guest addGuest(Guest guest){
         return guestRepository.saveAndFlush(guest);
@@ -37,13 +43,19 @@ public class GuestService {
     public boolean removeGuest(Long guestId){
         return guestRoomManager.removeGuest(guestId);
     }
+    public BulkOperationResultDTO checkoutGuests(Collection<Long> guestIds){
+        return guestRoomManager.checkoutGuests(guestIds);
+    }
+    public BulkOperationResultDTO checkoutFloor(int floor){
+        return guestRoomManager.checkoutFloor(floor);
+    }
     public List<GuestResponseDTO> getGuestsByAgeRange(Integer startAge, Integer endAge){
-        List<Guest> guests = guestRepository.findByAgeBetween(startAge,endAge);
-        return DTOConverter.covertToGuestDTO(guests);
+        return queryCoalescer.coalesce("guests.byAge", List.of(startAge, endAge),
+                () -> DTOConverter.covertToGuestDTO(guestRepository.findByAgeBetween(startAge,endAge)));
     }
 
     public List<GuestResponseDTO> getGuestsBetweenDateOfOccupancy(LocalDate startDate,LocalDate endDate){
-        List<Guest> guests = guestRepository.findByDateOfOccupancyBetween(startDate,endDate);
-        return DTOConverter.covertToGuestDTO(guests);
+        return queryCoalescer.coalesce("guests.byDateOfOccupancy", List.of(startDate, endDate),
+                () -> DTOConverter.covertToGuestDTO(guestRepository.findByDateOfOccupancyBetween(startDate,endDate)));
     }
 }
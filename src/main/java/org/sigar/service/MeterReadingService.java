@@ -0,0 +1,355 @@
+package org.sigar.service;
+
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.MeterBillingDTO;
+import org.sigar.dto.MeterConsumptionDTO;
+import org.sigar.dto.MeterIngestResultDTO;
+import org.sigar.dto.MeterReadingDTO;
+import org.sigar.dto.MeterStoreStatsDTO;
+import org.sigar.model.MeterReading;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.repo.MeterReadingRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.repo.RoomRepository;
+import org.sigar.utils.AfterCommit;
+import org.sigar.utils.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Sub-meter readings per room, kept in memory as primitive-array time series and persisted in JDBC batches.
+ * Each series has three resolutions: every reading for the recent days, then the last reading of each hour,
+ * then the last reading of each day. Readings are cumulative, so the last reading of an hour or day is all
+ * that is needed for the consumption across its boundary, and a month bills exactly from the daily points.
+ */
+@Service
+@Lazy(false)
+public class MeterReadingService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterReadingService.class);
+
+    private static final LongUnaryOperator HOUR = time -> Math.floorDiv(time, 3600L);
+    private static final LongUnaryOperator DAY = time -> Math.floorDiv(time, 86400L);
+
+    private final MeterReadingRepository meterReadingRepository;
+    private final RoomRepository roomRepository;
+    private final RentalContractRepository contractRepository;
+    private final PaymentTransactionRepository transactionRepository;
+    private final PaymentService paymentService;
+    private final PropertyRegistry propertyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int rawRetentionDays;
+    private final int hourlyRetentionDays;
+    private final Map<MeterType, Double> rates = new EnumMap<>(MeterType.class);
+    private final Map<String, Store> stores = new ConcurrentHashMap<>();
+    private final Set<BillingKey> billing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public MeterReadingService(MeterReadingRepository meterReadingRepository,
+                               RoomRepository roomRepository,
+                               RentalContractRepository contractRepository,
+                               PaymentTransactionRepository transactionRepository,
+                               PaymentService paymentService,
+                               PropertyRegistry propertyRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${pg2.meters.raw-retention-days:7}") int rawRetentionDays,
+                               @Value("${pg2.meters.hourly-retention-days:90}") int hourlyRetentionDays,
+                               @Value("${pg2.meters.rates.electricity:8}") double electricityRate,
+                               @Value("${pg2.meters.rates.water:0.05}") double waterRate) {
+        this.meterReadingRepository = meterReadingRepository;
+        this.roomRepository = roomRepository;
+        this.contractRepository = contractRepository;
+        this.transactionRepository = transactionRepository;
+        this.paymentService = paymentService;
+        this.propertyRegistry = propertyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rawRetentionDays = rawRetentionDays;
+        this.hourlyRetentionDays = Math.max(hourlyRetentionDays, rawRetentionDays);
+        this.rates.put(MeterType.ELECTRICITY, electricityRate);
+        this.rates.put(MeterType.WATER, waterRate);
+    }
+
+    // Runs before the web server accepts requests. Rows of a compaction that did not reach the database
+    // are thinned out again here, compaction gives the same result every time.
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyContext.runIn(propertyId, () -> {
+                Store store = storeOf(propertyId);
+                long[] loaded = new long[1];
+                meterReadingRepository.forEachReading(reading -> {
+                    store.seriesOf(reading.getRoomId(), reading.getMeterType()).raw.put(epochSecond(reading.getReadAt()), reading.getReading());
+                    loaded[0]++;
+                });
+                long dropped = compact();
+                logger.info("Loaded {} meter readings of property {} into {} series ({} thinned out)",
+                        loaded[0], propertyId, store.series.size(), dropped);
+            });
+        }
+    }
+
+    // Returns empty when a reading refers to a room that does not exist
+    @Transactional
+    public Optional<MeterIngestResultDTO> ingest(List<MeterReadingDTO> readings) {
+        Set<Long> roomIds = readings.stream().map(MeterReadingDTO::roomId).collect(Collectors.toSet());
+        if (roomRepository.findExistingRoomIds(roomIds).size() != roomIds.size()) {
+            return Optional.empty();
+        }
+        // Whole seconds, the in-memory series and deletes after compaction address readings by epoch second
+        List<MeterReading> rows = readings.stream()
+                .map(reading -> new MeterReading(reading.roomId(), reading.meterType(),
+                        reading.readAt().truncatedTo(ChronoUnit.SECONDS), null, reading.reading()))
+                .toList();
+        meterReadingRepository.upsertAll(rows);
+        String propertyId = PropertyContext.current();
+        Store store = storeOf(propertyId);
+        AfterCommit.run(() -> {
+            for (MeterReading row : rows) {
+                Series series = store.seriesOf(row.getRoomId(), row.getMeterType());
+                synchronized (series) {
+                    series.raw.put(epochSecond(row.getReadAt()), row.getReading());
+                }
+            }
+            store.ingested.add(rows.size());
+        });
+        return Optional.of(new MeterIngestResultDTO(propertyId, rows.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${pg2.meters.compaction-interval-ms:3600000}",
+            initialDelayString = "${pg2.meters.compaction-interval-ms:3600000}")
+    public void compactAllProperties() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyContext.runIn(propertyId, this::compact);
+        }
+    }
+
+    // Downsamples every series of the current property, returns the number of readings thinned out
+    public long compact() {
+        Store store = storeOf(PropertyContext.current());
+        LocalDate today = LocalDate.now();
+        long rawCutoff = epochSecond(today.minusDays(rawRetentionDays).atStartOfDay());
+        long hourlyCutoff = epochSecond(today.minusDays(hourlyRetentionDays).atStartOfDay());
+        long dropped = 0;
+        for (Map.Entry<SeriesKey, Series> entry : store.series.entrySet()) {
+            Series series = entry.getValue();
+            List<LocalDateTime> droppedReadings = new ArrayList<>();
+            synchronized (series) {
+                series.raw.downsampleInto(series.hourly, rawCutoff, HOUR, time -> droppedReadings.add(dateTime(time)));
+                series.hourly.downsampleInto(series.daily, hourlyCutoff, DAY, time -> droppedReadings.add(dateTime(time)));
+            }
+            if (!droppedReadings.isEmpty()) {
+                SeriesKey key = entry.getKey();
+                transactionTemplate.executeWithoutResult(status ->
+                        meterReadingRepository.deleteReadings(key.roomId(), key.meterType(), droppedReadings));
+                dropped += droppedReadings.size();
+            }
+        }
+        store.dropped.add(dropped);
+        return dropped;
+    }
+
+    public Optional<MeterConsumptionDTO> getConsumption(long roomId, MeterType meterType, LocalDate from, LocalDate to) {
+        String propertyId = PropertyContext.current();
+        Series series = storeOf(propertyId).series.get(new SeriesKey(roomId, meterType));
+        if (series == null) {
+            return Optional.empty();
+        }
+        Point[] range = range(series, from, to);
+        Point start = range[0];
+        Point end = range[1];
+        return Optional.of(new MeterConsumptionDTO(propertyId, roomId, meterType, from, to,
+                start != null ? dateTime(start.time()) : null, start != null ? start.value() : null,
+                end != null ? dateTime(end.time()) : null, end != null ? end.value() : null,
+                consumption(start, end)));
+    }
+
+    /**
+     * Bills the month's consumption of every room with a contract as one payment transaction per contract,
+     * dated the last day of the month. A room's latest contract is billed. The notes mark the transaction,
+     * so billing the same month again skips contracts that already have it. Empty while the same property, month
+     * and meter are being billed: the guard is held until the commit, so the next run sees what this one charged.
+     */
+    public Optional<MeterBillingDTO> bill(YearMonth month, MeterType meterType) {
+        String propertyId = PropertyContext.current();
+        BillingKey key = new BillingKey(propertyId, month, meterType);
+        if (!billing.add(key)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(transactionTemplate.execute(status -> billInTransaction(propertyId, month, meterType)));
+        } finally {
+            billing.remove(key);
+        }
+    }
+
+    private MeterBillingDTO billInTransaction(String propertyId, YearMonth month, MeterType meterType) {
+        String notes = "Metered " + meterType + " " + month;
+        // Later contracts of a room replace earlier ones
+        Map<Long, Long> contractByRoom = new LinkedHashMap<>();
+        contractRepository.findContractsWithRoom().forEach(view -> contractByRoom.put(view.getRoomId(), view.getId()));
+        Set<Long> alreadyBilled = new HashSet<>(transactionRepository.findContractIdsByTypeAndNotes(meterType.getTransactionType(), notes));
+        Map<SeriesKey, Series> series = storeOf(propertyId).series;
+
+        int billed = 0;
+        int skipped = 0;
+        double totalConsumption = 0;
+        long totalAmount = 0;
+        for (Map.Entry<Long, Long> entry : contractByRoom.entrySet()) {
+            Long contractId = entry.getValue();
+            if (alreadyBilled.contains(contractId)) {
+                skipped++;
+                continue;
+            }
+            Series roomSeries = series.get(new SeriesKey(entry.getKey(), meterType));
+            if (roomSeries == null) {
+                continue;
+            }
+            Point[] range = range(roomSeries, month.atDay(1), month.atEndOfMonth());
+            double consumption = consumption(range[0], range[1]);
+            long amount = Math.round(consumption * rates.get(meterType));
+            if (amount <= 0) {
+                continue;
+            }
+            PaymentTransaction transaction = PaymentTransaction.createPaymentTransaction(
+                    contractRepository.getReferenceById(contractId), Math.toIntExact(amount), meterType.getTransactionType(), notes);
+            transaction.setTransactionDate(month.atEndOfMonth());
+            paymentService.addPaymentTransaction(transaction);
+            billed++;
+            totalConsumption += consumption;
+            totalAmount += amount;
+        }
+        logger.info("Billed {} {} for {} to {} contracts of property {}, {} already billed",
+                totalAmount, meterType, month, billed, propertyId, skipped);
+        return new MeterBillingDTO(propertyId, month, meterType, billed, skipped, totalConsumption, totalAmount);
+    }
+
+    public MeterStoreStatsDTO getStats() {
+        String propertyId = PropertyContext.current();
+        Store store = storeOf(propertyId);
+        long raw = 0;
+        long hourly = 0;
+        long daily = 0;
+        for (Series series : store.series.values()) {
+            synchronized (series) {
+                raw += series.raw.size();
+                hourly += series.hourly.size();
+                daily += series.daily.size();
+            }
+        }
+        return new MeterStoreStatsDTO(propertyId, store.series.size(), raw, hourly, daily,
+                store.ingested.sum(), store.dropped.sum());
+    }
+
+    // {last reading before from, last reading before the day after to}, without an earlier reading the
+    // range starts at its first reading
+    private static Point[] range(Series series, LocalDate from, LocalDate to) {
+        long start = epochSecond(from.atStartOfDay());
+        long end = epochSecond(to.plusDays(1).atStartOfDay());
+        synchronized (series) {
+            Point first = series.lastBefore(start);
+            if (first == null) {
+                first = series.firstAtOrAfter(start);
+            }
+            Point last = series.lastBefore(end);
+            return first != null && last != null && first.time() <= last.time()
+                    ? new Point[]{first, last}
+                    : new Point[]{null, null};
+        }
+    }
+
+    // A register that went backwards was replaced or reset, that period is not charged
+    private static double consumption(Point start, Point end) {
+        return start != null && end != null ? Math.max(0, end.value() - start.value()) : 0;
+    }
+
+    private Store storeOf(String propertyId) {
+        return stores.computeIfAbsent(propertyId, id -> new Store());
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private record BillingKey(String propertyId, YearMonth month, MeterType meterType) {
+    }
+
+    private record SeriesKey(long roomId, MeterType meterType) {
+    }
+
+    private record Point(long time, double value) {
+    }
+
+    private static final class Store {
+        private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+        private final LongAdder ingested = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private Series seriesOf(long roomId, MeterType meterType) {
+            return series.computeIfAbsent(new SeriesKey(roomId, meterType), key -> new Series());
+        }
+    }
+
+    // The resolutions cover consecutive time ranges, except for late readings not compacted yet, so lookups
+    // take the closest point over all three. Guarded by its own monitor.
+    private static final class Series {
+        private final TimeSeries raw = new TimeSeries();
+        private final TimeSeries hourly = new TimeSeries();
+        private final TimeSeries daily = new TimeSeries();
+
+        private Point lastBefore(long time) {
+            Point last = null;
+            for (TimeSeries resolution : List.of(daily, hourly, raw)) {
+                int index = resolution.floorIndex(time - 1);
+                if (index >= 0 && (last == null || resolution.timeAt(index) > last.time())) {
+                    last = new Point(resolution.timeAt(index), resolution.valueAt(index));
+                }
+            }
+            return last;
+        }
+
+        private Point firstAtOrAfter(long time) {
+            Point first = null;
+            for (TimeSeries resolution : List.of(daily, hourly, raw)) {
+                int index = resolution.ceilingIndex(time);
+                if (index < resolution.size() && (first == null || resolution.timeAt(index) < first.time())) {
+                    first = new Point(resolution.timeAt(index), resolution.valueAt(index));
+                }
+            }
+            return first;
+        }
+    }
+}
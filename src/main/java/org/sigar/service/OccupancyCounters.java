@@ -0,0 +1,243 @@
+package org.sigar.service;
+
+import org.sigar.Constants.enums.Beds;
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.FloorOccupancyDTO;
+import org.sigar.dto.OccupancyDTO;
+import org.sigar.model.Room;
+import org.sigar.repo.ArchivedGuestStayRepository;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.GuestStayRepository;
+import org.sigar.repo.RoomRepository;
+import org.sigar.utils.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Live room and guest counts per property, striped by floor and {@link Beds} and by arrival day, so dashboards
+ * never list rooms or guests. Check-ins, checkouts and new rooms adjust the counters after their transaction
+ * commits, floor checkouts and room removals reseed the property from the aggregate queries instead.
+ * Arrivals are check-ins from the stay history, a guest who already left still arrived on that day.
+ */
+@Service
+@Lazy(false)
+public class OccupancyCounters implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyCounters.class);
+
+    private record StripeKey(int floor, Beds beds) {
+    }
+
+    private static final class Stripe {
+        private final LongAdder rooms = new LongAdder();
+        private final LongAdder availableRooms = new LongAdder();
+        private final LongAdder residents = new LongAdder();
+    }
+
+    private static final class PropertyOccupancy {
+        private final Map<StripeKey, Stripe> stripes = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<LocalDate, LongAdder> arrivals = new ConcurrentSkipListMap<>();
+        private final LocalDateTime seededAt = LocalDateTime.now();
+
+        private Stripe stripe(int floor, Beds beds) {
+            return stripes.computeIfAbsent(new StripeKey(floor, beds), key -> new Stripe());
+        }
+
+        private void arrived(LocalDate day, long guests) {
+            if (day != null) {
+                arrivals.computeIfAbsent(day, d -> new LongAdder()).add(guests);
+            }
+        }
+
+        // Comparable view for the drift check, empty stripes and days count as absent
+        private Map<StripeKey, List<Long>> stripeCounts() {
+            return stripes.entrySet().stream()
+                    .filter(entry -> entry.getValue().rooms.sum() != 0 || entry.getValue().residents.sum() != 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> List.of(entry.getValue().rooms.sum(),
+                            entry.getValue().availableRooms.sum(), entry.getValue().residents.sum())));
+        }
+
+        private Map<LocalDate, Long> arrivalCounts() {
+            return arrivals.entrySet().stream()
+                    .filter(entry -> entry.getValue().sum() != 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+        }
+    }
+
+    private final RoomRepository roomRepository;
+    private final GuestStayRepository stayRepository;
+    private final ArchivedGuestStayRepository archivedStayRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final Map<String, PropertyOccupancy> occupancy = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> driftCorrections = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OccupancyCounters(RoomRepository roomRepository,
+                             GuestStayRepository stayRepository,
+                             ArchivedGuestStayRepository archivedStayRepository,
+                             PropertyRegistry propertyRegistry) {
+        this.roomRepository = roomRepository;
+        this.stayRepository = stayRepository;
+        this.archivedStayRepository = archivedStayRepository;
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            occupancy.put(propertyId, load(propertyId));
+        }
+        logger.info("Seeded occupancy counters of {} properties", occupancy.size());
+    }
+
+    // Counters are looked up after commit, a reseed committing in between replaces them
+    public void roomAdded(Room room) {
+        String propertyId = PropertyContext.current();
+        int floor = room.getFloor();
+        Beds beds = room.getBeds();
+        boolean available = room.isAvailable();
+        AfterCommit.run(() -> {
+            Stripe stripe = countersOf(propertyId).stripe(floor, beds);
+            stripe.rooms.increment();
+            if (available) {
+                stripe.availableRooms.increment();
+            }
+        });
+    }
+
+    // wasAvailable is the room's flag before the guest moved in, checkIn the first day of the stay it opened
+    public void guestCheckedIn(Room room, boolean wasAvailable, LocalDate checkIn) {
+        String propertyId = PropertyContext.current();
+        int floor = room.getFloor();
+        Beds beds = room.getBeds();
+        boolean filled = wasAvailable && !room.isAvailable();
+        AfterCommit.run(() -> {
+            PropertyOccupancy counters = countersOf(propertyId);
+            Stripe stripe = counters.stripe(floor, beds);
+            stripe.residents.increment();
+            if (filled) {
+                stripe.availableRooms.decrement();
+            }
+            counters.arrived(checkIn, 1);
+        });
+    }
+
+    // The checkout loaded these rows before deleting the guests, every room it freed becomes available again.
+    // Arrivals stay as they are, the guests did arrive.
+    public void guestsCheckedOut(List<GuestRepository.GuestCheckoutView> checkedOut) {
+        String propertyId = PropertyContext.current();
+        AfterCommit.run(() -> {
+            PropertyOccupancy counters = countersOf(propertyId);
+            Set<Long> freedRooms = new HashSet<>();
+            for (GuestRepository.GuestCheckoutView guest : checkedOut) {
+                if (guest.getRoomId() == null) {
+                    continue;
+                }
+                Stripe stripe = counters.stripe(guest.getFloor(), guest.getBeds());
+                stripe.residents.decrement();
+                if (!Boolean.TRUE.equals(guest.getRoomAvailable()) && freedRooms.add(guest.getRoomId())) {
+                    stripe.availableRooms.increment();
+                }
+            }
+        });
+    }
+
+    // Floor checkouts and room removals touch rows the caller never loaded, recounting is cheaper than loading them
+    public void reseedAfterCommit() {
+        String propertyId = PropertyContext.current();
+        AfterCommit.run(() -> occupancy.put(propertyId, load(propertyId)));
+    }
+
+    public OccupancyDTO getOccupancy(LocalDate arrivalsFrom, LocalDate arrivalsTo) {
+        String propertyId = PropertyContext.current();
+        PropertyOccupancy counters = current();
+        long rooms = 0;
+        long availableRooms = 0;
+        long residents = 0;
+        long bedCapacity = 0;
+        List<FloorOccupancyDTO> floors = new ArrayList<>();
+        for (Map.Entry<StripeKey, Stripe> entry : counters.stripes.entrySet()) {
+            StripeKey key = entry.getKey();
+            Stripe stripe = entry.getValue();
+            long stripeRooms = stripe.rooms.sum();
+            long stripeCapacity = key.beds() != null ? stripeRooms * key.beds().getCapacity() : 0;
+            FloorOccupancyDTO floor = new FloorOccupancyDTO(key.floor(), key.beds(), stripeRooms,
+                    stripe.availableRooms.sum(), stripe.residents.sum(), stripeCapacity);
+            rooms += floor.rooms();
+            availableRooms += floor.availableRooms();
+            residents += floor.residents();
+            bedCapacity += floor.bedCapacity();
+            floors.add(floor);
+        }
+        floors.sort(Comparator.comparing(FloorOccupancyDTO::floor)
+                .thenComparing(floor -> floor.beds() != null ? floor.beds().getCapacity() : 0));
+        Map<LocalDate, Long> arrivalsByDay = new TreeMap<>();
+        counters.arrivals.subMap(arrivalsFrom, true, arrivalsTo, true)
+                .forEach((day, guests) -> arrivalsByDay.put(day, guests.sum()));
+        long arrivals = arrivalsByDay.values().stream().mapToLong(Long::longValue).sum();
+        return new OccupancyDTO(propertyId, rooms, availableRooms, residents, bedCapacity, arrivals, arrivalsByDay,
+                floors, counters.seededAt, driftCorrections.computeIfAbsent(propertyId, id -> new LongAdder()).sum());
+    }
+
+    @Scheduled(fixedDelayString = "${pg2.occupancy.drift-check-interval-ms:300000}",
+            initialDelayString = "${pg2.occupancy.drift-check-interval-ms:300000}")
+    public void checkDrift() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyOccupancy live = occupancy.get(propertyId);
+            PropertyOccupancy counted = load(propertyId);
+            if (live == null || !live.stripeCounts().equals(counted.stripeCounts())
+                    || !live.arrivalCounts().equals(counted.arrivalCounts())) {
+                logger.warn("Occupancy counters of property {} drifted from the database, reseeding", propertyId);
+                driftCorrections.computeIfAbsent(propertyId, id -> new LongAdder()).increment();
+                occupancy.put(propertyId, counted);
+            }
+        }
+    }
+
+    private PropertyOccupancy load(String propertyId) {
+        return PropertyContext.callIn(propertyId, () -> {
+            PropertyOccupancy counters = new PropertyOccupancy();
+            for (RoomRepository.OccupancyView view : roomRepository.aggregateOccupancy()) {
+                Stripe stripe = counters.stripes.computeIfAbsent(new StripeKey(view.getFloor(), view.getBeds()), key -> new Stripe());
+                stripe.rooms.add(view.getRooms());
+                stripe.availableRooms.add(view.getAvailableRooms());
+                stripe.residents.add(view.getResidents());
+            }
+            for (GuestStayRepository.ArrivalView view : stayRepository.countCheckInsByDay()) {
+                counters.arrived(view.getDay(), view.getGuests());
+            }
+            for (GuestStayRepository.ArrivalView view : archivedStayRepository.countCheckInsByDay()) {
+                counters.arrived(view.getDay(), view.getGuests());
+            }
+            return counters;
+        });
+    }
+
+    private PropertyOccupancy current() {
+        return countersOf(PropertyContext.current());
+    }
+
+    private PropertyOccupancy countersOf(String propertyId) {
+        return occupancy.computeIfAbsent(propertyId, this::load);
+    }
+}
@@ -0,0 +1,13 @@
+package org.sigar.service;
+
+import org.sigar.model.OutboxEvent;
+
+/**
+ * Receives relayed outbox events. Delivery is at least once, so implementations must tolerate duplicates
+ * (the event id is stable). Throwing keeps the event, and every later event of the same aggregate, queued for a retry
+ * with backoff, until the event is parked after pg2.outbox.max-attempts.
+ */
+public interface OutboxEventConsumer {
+
+    void accept(OutboxEvent event) throws Exception;
+}
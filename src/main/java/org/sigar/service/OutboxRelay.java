@@ -0,0 +1,177 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.OutboxMetricsDTO;
+import org.sigar.model.OutboxEvent;
+import org.sigar.repo.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polls each property's outbox in batches and hands the events to every {@link OutboxEventConsumer}.
+ * An event is marked published only after all consumers accepted it (at-least-once). When delivery fails
+ * the aggregate is held back with an exponential backoff, so per-aggregate order is kept while the other
+ * aggregates keep draining. After max-attempts the event is parked (dead-lettered) and the aggregate moves on.
+ */
+@Service
+@Lazy(false)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventConsumer> consumers;
+    private final PropertyRegistry propertyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration retention;
+    private final Map<String, RelayStats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxEventConsumer> consumers,
+                       PropertyRegistry propertyRegistry,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${pg2.outbox.batch-size:100}") int batchSize,
+                       @Value("${pg2.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${pg2.outbox.retry-backoff-ms:1000}") long retryBackoffMillis,
+                       @Value("${pg2.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMillis,
+                       @Value("${pg2.outbox.retention-days:7}") long retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.consumers = consumers;
+        this.propertyRegistry = propertyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.maxRetryBackoff = Duration.ofMillis(maxRetryBackoffMillis);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${pg2.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyContext.runIn(propertyId, () -> {
+                // Keep draining while full batches come back, then wait for the next poll
+                Integer relayed;
+                do {
+                    relayed = transactionTemplate.execute(status -> relayBatch(propertyId));
+                } while (relayed != null && relayed == batchSize);
+            });
+        }
+    }
+
+    @Scheduled(cron = "${pg2.outbox.purge-cron:0 30 * * * *}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            Integer purged = PropertyContext.callIn(propertyId,
+                    () -> transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(before)));
+            logger.info("Purged {} published outbox events of property {}", purged, propertyId);
+        }
+    }
+
+    public List<OutboxMetricsDTO> getMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        return propertyRegistry.getPropertyIds().stream()
+                .map(propertyId -> PropertyContext.callIn(propertyId, () -> {
+                    RelayStats relayStats = statsOf(propertyId);
+                    LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+                    return new OutboxMetricsDTO(
+                            propertyId,
+                            outboxEventRepository.countUnpublished(),
+                            oldest != null ? Duration.between(oldest, now).toMillis() : 0L,
+                            outboxEventRepository.countParked(),
+                            relayStats.delivered.sum(),
+                            relayStats.failed.sum(),
+                            relayStats.lastLagMillis.get(),
+                            relayStats.maxLagMillis.get());
+                }))
+                .toList();
+    }
+
+    private int relayBatch(String propertyId) {
+        List<OutboxEvent> batch = outboxEventRepository.findDeliverable(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        RelayStats relayStats = statsOf(propertyId);
+        Set<String> blockedAggregates = new HashSet<>();
+        int delivered = 0;
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blockedAggregates.contains(aggregate)) {
+                continue;
+            }
+            try {
+                for (OutboxEventConsumer consumer : consumers) {
+                    consumer.accept(event);
+                }
+                LocalDateTime publishedAt = LocalDateTime.now();
+                event.setPublishedAt(publishedAt);
+                event.setNextAttemptAt(null);
+                long lag = Duration.between(event.getCreatedAt(), publishedAt).toMillis();
+                relayStats.lastLagMillis.set(lag);
+                relayStats.maxLagMillis.accumulateAndGet(lag, Math::max);
+                relayStats.delivered.increment();
+                delivered++;
+            } catch (Exception e) {
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                String message = String.valueOf(e.getMessage());
+                event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                relayStats.failed.increment();
+                if (attempts >= maxAttempts) {
+                    logger.error("Parking outbox event {} of {} after {} failed attempts", event.getId(), aggregate, attempts, e);
+                    event.setParkedAt(LocalDateTime.now());
+                    event.setNextAttemptAt(null);
+                } else {
+                    logger.warn("Delivery of outbox event {} failed, attempt {}", event.getId(), attempts, e);
+                    event.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                }
+                // Later events of the aggregate in this batch wait, the backoff keeps them out of the next queries
+                blockedAggregates.add(aggregate);
+            }
+        }
+        if (!batch.isEmpty()) {
+            logger.debug("Relayed {} of {} outbox events of property {}", delivered, batch.size(), propertyId);
+        }
+        return batch.size();
+    }
+
+    // 1x, 2x, 4x ... the base backoff, capped
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private RelayStats statsOf(String propertyId) {
+        return stats.computeIfAbsent(propertyId, id -> new RelayStats());
+    }
+
+    private static final class RelayStats {
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLong lastLagMillis = new AtomicLong();
+        private final AtomicLong maxLagMillis = new AtomicLong();
+    }
+}
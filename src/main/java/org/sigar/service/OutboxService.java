@@ -0,0 +1,67 @@
+package org.sigar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.sigar.Constants.enums.OutboxEventType;
+import org.sigar.model.OutboxEvent;
+import org.sigar.repo.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes domain events into the outbox table. Callers must already be in a transaction, so the event
+ * is committed or rolled back together with the change it describes; OutboxRelay delivers it later.
+ */
+@Service
+public class OutboxService {
+
+    public static final String GUEST = "Guest";
+    public static final String RENTAL_CONTRACT = "RentalContract";
+    public static final String PAYMENT_TRANSACTION = "PaymentTransaction";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, OutboxEventType eventType, Object payload) {
+        outboxEventRepository.save(createEvent(aggregateType, aggregateId, eventType, payload));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(String aggregateType, OutboxEventType eventType, Map<Long, ?> payloadsByAggregateId) {
+        List<OutboxEvent> events = payloadsByAggregateId.entrySet().stream()
+                .map(entry -> createEvent(aggregateType, entry.getKey(), eventType, entry.getValue()))
+                .toList();
+        outboxEventRepository.saveAll(events);
+    }
+
+    private OutboxEvent createEvent(String aggregateType, Long aggregateId, OutboxEventType eventType, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
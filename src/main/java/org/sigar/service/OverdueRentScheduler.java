@@ -0,0 +1,131 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.events.RentOverdueEvent;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.utils.AfterCommit;
+import org.sigar.utils.TimerWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every rental contract's rent due date in a timer wheel and publishes a {@link RentOverdueEvent}
+ * on the first day the rent is overdue, instead of scanning all contracts each day.
+ */
+@Service
+@Lazy(false)
+public class OverdueRentScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueRentScheduler.class);
+
+    // Contract IDs are only unique within one property's database
+    private record ContractKey(String propertyId, Long rentalContractId) {
+    }
+
+    private final RentalContractRepository contractRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimerWheel<ContractKey> wheel = new TimerWheel<>(LocalDate.now().toEpochDay());
+    private final Map<ContractKey, LocalDate> dueDates = new HashMap<>();
+    private final Set<ContractKey> overdueContracts = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public OverdueRentScheduler(RentalContractRepository contractRepository,
+                                PropertyRegistry propertyRegistry,
+                                ApplicationEventPublisher eventPublisher) {
+        this.contractRepository = contractRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDueDates() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            List<RentalContractRepository.DueDateView> contracts =
+                    PropertyContext.callIn(propertyId, contractRepository::findAllDueDates);
+            synchronized (this) {
+                for (RentalContractRepository.DueDateView contract : contracts) {
+                    track(new ContractKey(propertyId, contract.getId()), contract.getRentDueDate());
+                }
+            }
+            logger.info("Loaded {} rent due dates of property {} into the overdue scheduler", contracts.size(), propertyId);
+        }
+        tick();
+    }
+
+    // Called by the services whenever a due date is set or moved; applied only once the change commits
+    public void schedule(Long rentalContractId, LocalDate rentDueDate) {
+        ContractKey key = new ContractKey(PropertyContext.current(), rentalContractId);
+        AfterCommit.run(() -> reschedule(key, rentDueDate));
+    }
+
+    @Scheduled(cron = "${pg2.overdue.tick-cron:0 0 0 * * *}")
+    public void tick() {
+        fire(advance(LocalDate.now()));
+    }
+
+    // Overdue contracts of the current property
+    public Set<Long> getOverdueContractIds() {
+        String propertyId = PropertyContext.current();
+        return overdueContracts.stream()
+                .filter(key -> key.propertyId().equals(propertyId))
+                .map(ContractKey::rentalContractId)
+                .collect(Collectors.toSet());
+    }
+
+    public synchronized int getScheduledCount() {
+        return wheel.size();
+    }
+
+    private void reschedule(ContractKey key, LocalDate rentDueDate) {
+        synchronized (this) {
+            overdueContracts.remove(key);
+            track(key, rentDueDate);
+        }
+        tick();
+    }
+
+    private void track(ContractKey key, LocalDate rentDueDate) {
+        if (rentDueDate == null) {
+            wheel.cancel(key);
+            dueDates.remove(key);
+            return;
+        }
+        // Rent becomes overdue the day after it is due
+        wheel.schedule(key, rentDueDate.plusDays(1).toEpochDay());
+        dueDates.put(key, rentDueDate);
+    }
+
+    private synchronized List<RentOverdueEvent> advance(LocalDate today) {
+        return wheel.advanceTo(today.toEpochDay()).stream()
+                .map(key -> {
+                    overdueContracts.add(key);
+                    return new RentOverdueEvent(key.propertyId(), key.rentalContractId(), dueDates.remove(key));
+                })
+                .toList();
+    }
+
+    private void fire(List<RentOverdueEvent> events) {
+        for (RentOverdueEvent event : events) {
+            logger.info("Rent overdue for Rental Contract {} of property {} (due {})",
+                    event.rentalContractId(), event.propertyId(), event.rentDueDate());
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.sigar.service;
+
+import jakarta.annotation.PreDestroy;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.JournalReplayDTO;
+import org.sigar.dto.JournalVerificationDTO;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.utils.AfterCommit;
+import org.sigar.utils.MappedJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Binary, append-only journal of payment transactions next to the H2 table, one directory per property.
+ * Replaying it rebuilds per-contract balances without going through JPA, and verifying compares those
+ * balances with the database.
+ */
+@Service
+@Lazy(false)
+public class PaymentJournalService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentJournalService.class);
+
+    // transactionId, rentalContractId, epochDay, amount, transactionType ordinal
+    private static final int PAYLOAD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final PaymentTransactionRepository transactionRepository;
+    private final ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final Path journalDirectory;
+    private final int segmentSizeBytes;
+    private final Map<String, MappedJournal> journals = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PaymentJournalService(PaymentTransactionRepository transactionRepository,
+                                 ArchivedPaymentTransactionRepository archivedTransactionRepository,
+                                 PropertyRegistry propertyRegistry,
+                                 @Value("${pg2.journal.dir:./data/journal}") String journalDirectory,
+                                 @Value("${pg2.journal.segment-size-mb:64}") int segmentSizeMb) {
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.segmentSizeBytes = segmentSizeMb * 1024 * 1024;
+    }
+
+    // Runs before the web server accepts requests, so the backfill cannot race with live payments. Payments are
+    // appended after commit in commit order, not id order, so a crash can leave out an id below journaled ones:
+    // every transaction from the first id missing in the journal on is checked and the missing ones are added.
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            MappedJournal journal = journalOf(propertyId);
+            BitSet journaledIds = journaledTransactionIds(journal);
+            long afterId = journaledIds.nextClearBit(1) - 1;
+            long backfilled = PropertyContext.callIn(propertyId, () -> backfill(journal, afterId, journaledIds));
+            if (backfilled > 0) {
+                logger.info("Backfilled {} payment transactions of property {} after id {} into the journal",
+                        backfilled, propertyId, afterId);
+            }
+        }
+    }
+
+    // Appends after the surrounding transaction commits, so rolled back payments never reach the journal
+    public void record(PaymentTransaction transaction) {
+        MappedJournal journal = journalOf(PropertyContext.current());
+        long transactionId = transaction.getTransactionID();
+        long rentalContractId = transaction.getRentalContract() != null ? transaction.getRentalContract().getId() : 0L;
+        LocalDate transactionDate = transaction.getTransactionDate();
+        Integer amount = transaction.getAmount();
+        TransactionType transactionType = transaction.getTransactionType();
+        AfterCommit.run(() -> append(journal, transactionId, rentalContractId, transactionDate, amount, transactionType));
+    }
+
+    public JournalReplayDTO rebuildBalances() {
+        String propertyId = PropertyContext.current();
+        Map<Long, long[]> totals = new HashMap<>();
+        long start = System.nanoTime();
+        long events = replay(journalOf(propertyId), totals);
+        long elapsedNanos = System.nanoTime() - start;
+        Map<Long, Long> balances = new HashMap<>();
+        totals.forEach((contractId, total) -> balances.put(contractId, total[1]));
+        return new JournalReplayDTO(propertyId, events, elapsedNanos / 1_000_000,
+                elapsedNanos > 0 ? events * 1_000_000_000L / elapsedNanos : events, balances);
+    }
+
+    public JournalVerificationDTO verify() {
+        String propertyId = PropertyContext.current();
+        Map<Long, long[]> journalTotals = new HashMap<>();
+        long start = System.nanoTime();
+        long events = replay(journalOf(propertyId), journalTotals);
+        long replayMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Archived transactions stay in the journal, so both tiers count
+        Map<Long, long[]> databaseTotals = new HashMap<>();
+        addTotals(databaseTotals, transactionRepository.sumAmountsByContract());
+        addTotals(databaseTotals, archivedTransactionRepository.sumAmountsByContract());
+        List<Long> mismatches = new ArrayList<>();
+        for (Long contractId : union(journalTotals, databaseTotals)) {
+            long[] journalTotal = journalTotals.getOrDefault(contractId, new long[2]);
+            long[] databaseTotal = databaseTotals.getOrDefault(contractId, new long[2]);
+            if (journalTotal[0] != databaseTotal[0] || journalTotal[1] != databaseTotal[1]) {
+                mismatches.add(contractId);
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            logger.warn("Payment journal of property {} disagrees with the database for contracts {}", propertyId, mismatches);
+        }
+        return new JournalVerificationDTO(propertyId, events, replayMillis, databaseTotals.size(), mismatches);
+    }
+
+    @Scheduled(fixedDelayString = "${pg2.journal.force-interval-ms:1000}")
+    public void force() {
+        journals.values().forEach(MappedJournal::force);
+    }
+
+    @PreDestroy
+    public void close() {
+        journals.values().forEach(MappedJournal::close);
+    }
+
+    private static void addTotals(Map<Long, long[]> totals, List<PaymentTransactionRepository.ContractTotalView> views) {
+        for (PaymentTransactionRepository.ContractTotalView view : views) {
+            long[] total = totals.computeIfAbsent(view.getRentalContractId() != null ? view.getRentalContractId() : 0L,
+                    id -> new long[2]);
+            total[0] += view.getTransactions();
+            total[1] += view.getAmount();
+        }
+    }
+
+    private long backfill(MappedJournal journal, long afterId, BitSet journaledIds) {
+        return backfill(journal, afterId, journaledIds, archivedTransactionRepository::findJournalEntriesAfter)
+                + backfill(journal, afterId, journaledIds, transactionRepository::findJournalEntriesAfter);
+    }
+
+    private static long backfill(MappedJournal journal, long afterId, BitSet journaledIds,
+                                 BiFunction<Long, Pageable, List<PaymentTransactionRepository.JournalEntryView>> entriesAfter) {
+        long lastId = afterId;
+        long count = 0;
+        List<PaymentTransactionRepository.JournalEntryView> batch;
+        do {
+            batch = entriesAfter.apply(lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (PaymentTransactionRepository.JournalEntryView entry : batch) {
+                lastId = entry.getTransactionId();
+                int bit = Math.toIntExact(lastId);
+                if (journaledIds.get(bit)) {
+                    continue;
+                }
+                append(journal, lastId, entry.getRentalContractId() != null ? entry.getRentalContractId() : 0L,
+                        entry.getTransactionDate(), entry.getAmount(), entry.getTransactionType());
+                journaledIds.set(bit);
+                count++;
+            }
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        return count;
+    }
+
+    // Identity ids start at 1 and stay far below Integer.MAX_VALUE, one bit per id
+    private static BitSet journaledTransactionIds(MappedJournal journal) {
+        BitSet ids = new BitSet();
+        journal.replay((buffer, offset) -> ids.set(Math.toIntExact(buffer.getLong(offset))));
+        return ids;
+    }
+
+    // totals[contractId] = {transaction count, amount}
+    private long replay(MappedJournal journal, Map<Long, long[]> totals) {
+        return journal.replay((buffer, offset) -> {
+            long rentalContractId = buffer.getLong(offset + Long.BYTES);
+            int amount = buffer.getInt(offset + 2 * Long.BYTES + Integer.BYTES);
+            long[] total = totals.computeIfAbsent(rentalContractId, id -> new long[2]);
+            total[0]++;
+            total[1] += amount;
+        });
+    }
+
+    private static void append(MappedJournal journal, long transactionId, long rentalContractId,
+                               LocalDate transactionDate, Integer amount, TransactionType transactionType) {
+        journal.append((buffer, offset) -> {
+            buffer.putLong(offset, transactionId);
+            buffer.putLong(offset + Long.BYTES, rentalContractId);
+            buffer.putInt(offset + 2 * Long.BYTES, transactionDate != null ? (int) transactionDate.toEpochDay() : Integer.MIN_VALUE);
+            buffer.putInt(offset + 2 * Long.BYTES + Integer.BYTES, Objects.requireNonNullElse(amount, 0));
+            buffer.putInt(offset + 2 * Long.BYTES + 2 * Integer.BYTES, transactionType != null ? transactionType.ordinal() : -1);
+        });
+    }
+
+    private MappedJournal journalOf(String propertyId) {
+        return journals.computeIfAbsent(propertyId,
+                id -> new MappedJournal(journalDirectory.resolve(id), PAYLOAD_SIZE, segmentSizeBytes));
+    }
+
+    private static List<Long> union(Map<Long, long[]> first, Map<Long, long[]> second) {
+        List<Long> keys = new ArrayList<>(first.keySet());
+        second.keySet().stream().filter(key -> !first.containsKey(key)).forEach(keys::add);
+        return keys;
+    }
+}
@@ -1,38 +1,163 @@
 package org.sigar.service;
 
+import org.sigar.Constants.enums.OutboxEventType;
 import org.sigar.Constants.enums.TransactionType;
 import org.sigar.dto.DTOConverter;
 import org.sigar.dto.PaymentTransactionResponseDTO;
 import org.sigar.dto.RentalContractResponseDTO;
+import org.sigar.dto.TransactionHistoryPageDTO;
 import org.sigar.model.PaymentTransaction;
 import org.sigar.model.RentalContract;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
 import org.sigar.repo.PaymentTransactionRepository;
 import org.sigar.repo.RentalContractRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class PaymentService {
 
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Comparator<PaymentTransactionResponseDTO> NEWEST_FIRST = Comparator
+            .comparing(PaymentTransactionResponseDTO::transactionDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(PaymentTransactionResponseDTO::transactionId)
+            .reversed();
+
     private final PaymentTransactionRepository transactionRepository;
     private final RentalContractRepository contractRepository;
+    private final OverdueRentScheduler overdueRentScheduler;
+    private final OutboxService outboxService;
+    private final PaymentJournalService paymentJournalService;
+    private final ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    private final ArchiveService archiveService;
 
     @Autowired
-    public PaymentService(PaymentTransactionRepository transactionRepository, RentalContractRepository contractRepository) {
+    public PaymentService(PaymentTransactionRepository transactionRepository,
+                          RentalContractRepository contractRepository,
+                          OverdueRentScheduler overdueRentScheduler,
+                          OutboxService outboxService,
+                          PaymentJournalService paymentJournalService,
+                          ArchivedPaymentTransactionRepository archivedTransactionRepository,
+                          ArchiveService archiveService) {
         this.transactionRepository = transactionRepository;
         this.contractRepository = contractRepository;
+        this.overdueRentScheduler = overdueRentScheduler;
+        this.outboxService = outboxService;
+        this.paymentJournalService = paymentJournalService;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.archiveService = archiveService;
     }
 
 //    public List<PaymentTransaction> getAllTransactions() {
 //        return transactionRepository.findAll();
 //    }
+    @Transactional
     public RentalContractResponseDTO addRentalContract(RentalContract rentalContract){
-        return DTOConverter.convertToRentalContractResponseDTO(contractRepository.save(rentalContract));
+        RentalContract savedContract = contractRepository.save(rentalContract);
+        overdueRentScheduler.schedule(savedContract.getId(), savedContract.getRentDueDate());
+        RentalContractResponseDTO contractDTO = DTOConverter.convertToRentalContractResponseDTO(savedContract);
+        outboxService.record(OutboxService.RENTAL_CONTRACT, savedContract.getId(), OutboxEventType.RENTAL_CONTRACT_CREATED, contractDTO);
+        return contractDTO;
     }
+    @Transactional
     public PaymentTransactionResponseDTO addPaymentTransaction(PaymentTransaction transaction){
-        return DTOConverter.convertToPaymentTransactionResponseDTO(transactionRepository.save(transaction));
+        // The history cursor is (transactionDate, transactionID), so every transaction needs a date
+        if(transaction.getTransactionDate() == null){
+            transaction.setTransactionDate(LocalDate.now());
+        }
+        if(transaction.getTransactionType() == TransactionType.RENT_PAYMENT && transaction.getRentalContract() != null){
+            advanceRentDueDate(transaction.getRentalContract().getId());
+        }
+        PaymentTransaction savedTransaction = transactionRepository.save(transaction);
+        paymentJournalService.record(savedTransaction);
+        PaymentTransactionResponseDTO transactionDTO = DTOConverter.convertToPaymentTransactionResponseDTO(savedTransaction);
+        // Payments are ordered per contract, payments without a contract form their own aggregate
+        if(savedTransaction.getRentalContract() != null){
+            outboxService.record(OutboxService.RENTAL_CONTRACT, savedTransaction.getRentalContract().getId(),
+                    OutboxEventType.PAYMENT_RECORDED, transactionDTO);
+        } else {
+            outboxService.record(OutboxService.PAYMENT_TRANSACTION, savedTransaction.getTransactionID(),
+                    OutboxEventType.PAYMENT_RECORDED, transactionDTO);
+        }
+        return transactionDTO;
+    }
+
+    // A rent payment moves the contract's due date one month ahead
+    private void advanceRentDueDate(Long rentalContractId){
+        contractRepository.findById(rentalContractId)
+                .filter(contract -> contract.getRentDueDate() != null)
+                .ifPresent(contract -> {
+                    contract.updateRentDueDate();
+                    overdueRentScheduler.schedule(contract.getId(), contract.getRentDueDate());
+                });
+    }
+
+    public List<RentalContractResponseDTO> getOverdueRentalContracts(){
+        return contractRepository.findAllById(overdueRentScheduler.getOverdueContractIds())
+                .stream()
+                .map(DTOConverter::convertToRentalContractResponseDTO)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TransactionHistoryPageDTO> getTransactionHistory(Long rentalContractId,
+                                                                     LocalDate beforeDate,
+                                                                     Long beforeId,
+                                                                     int size){
+        if(!contractRepository.existsById(rentalContractId)){
+            return Optional.empty();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean firstPage = beforeDate == null || beforeId == null;
+        List<PaymentTransactionResponseDTO> transactions = (firstPage
+                ? transactionRepository.findLatestByContract(rentalContractId, limit)
+                : transactionRepository.findByContractBefore(rentalContractId, beforeDate, beforeId, limit))
+                .stream().map(DTOConverter::convertToPaymentTransactionResponseDTO).toList();
+
+        // The archive is only read once the page reaches back to dates it may hold
+        boolean hotPageFull = transactions.size() > pageSize;
+        Optional<LocalDate> archivedThrough = archiveService.getTransactionsArchivedThrough();
+        if (archivedThrough.isPresent() && (!hotPageFull || transactions.get(pageSize).transactionDate() == null
+                || !transactions.get(pageSize).transactionDate().isAfter(archivedThrough.get()))) {
+            List<PaymentTransactionResponseDTO> archived = (firstPage
+                    ? archivedTransactionRepository.findLatestByContract(rentalContractId, limit)
+                    : archivedTransactionRepository.findByContractBefore(rentalContractId, beforeDate, beforeId, limit))
+                    .stream().map(DTOConverter::convertToPaymentTransactionResponseDTO).toList();
+            transactions = merge(transactions, archived, pageSize + 1);
+        }
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<PaymentTransactionResponseDTO> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+        PaymentTransactionResponseDTO last = hasMore ? page.get(pageSize - 1) : null;
+        return Optional.of(new TransactionHistoryPageDTO(
+                rentalContractId,
+                page,
+                last != null ? last.transactionDate() : null,
+                last != null ? last.transactionId() : null));
+    }
+
+    // A transaction archived between the two queries is returned by both, it is kept once
+    private static List<PaymentTransactionResponseDTO> merge(List<PaymentTransactionResponseDTO> hot,
+                                                             List<PaymentTransactionResponseDTO> archived,
+                                                             int limit){
+        Map<Long, PaymentTransactionResponseDTO> byId = new LinkedHashMap<>();
+        hot.forEach(transaction -> byId.put(transaction.transactionId(), transaction));
+        archived.forEach(transaction -> byId.putIfAbsent(transaction.transactionId(), transaction));
+        List<PaymentTransactionResponseDTO> merged = new ArrayList<>(byId.values());
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
     }
 //    // Method to process  payment
 //    public void processPayment(Long rentalContractId, TransactionType transactionType, int amountPaid) {
@@ -0,0 +1,77 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.PropertySummaryDTO;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.repo.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Cross-property reports: the same query runs against every property's database in parallel
+ * and the per-property results are gathered into one response.
+ */
+@Service
+public class PropertyReportService {
+
+    private final PropertyRegistry propertyRegistry;
+    private final RoomRepository roomRepository;
+    private final GuestRepository guestRepository;
+    private final RentalContractRepository contractRepository;
+    private final PaymentTransactionRepository transactionRepository;
+    private final ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public PropertyReportService(PropertyRegistry propertyRegistry,
+                                 RoomRepository roomRepository,
+                                 GuestRepository guestRepository,
+                                 RentalContractRepository contractRepository,
+                                 PaymentTransactionRepository transactionRepository,
+                                 ArchivedPaymentTransactionRepository archivedTransactionRepository,
+                                 @Qualifier("propertyReportExecutor") ExecutorService executor,
+                                 PlatformTransactionManager transactionManager) {
+        this.propertyRegistry = propertyRegistry;
+        this.roomRepository = roomRepository;
+        this.guestRepository = guestRepository;
+        this.contractRepository = contractRepository;
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<PropertySummaryDTO> summarizeProperties() {
+        List<CompletableFuture<PropertySummaryDTO>> futures = propertyRegistry.getPropertyIds().stream()
+                .map(propertyId -> CompletableFuture.supplyAsync(
+                        () -> PropertyContext.callIn(propertyId, () -> readOnlyTransaction.execute(status -> summarize(propertyId))),
+                        executor))
+                .toList();
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    private PropertySummaryDTO summarize(String propertyId) {
+        return new PropertySummaryDTO(
+                propertyId,
+                roomRepository.count(),
+                roomRepository.countAvailableRooms(),
+                guestRepository.count(),
+                contractRepository.count(),
+                transactionRepository.sumAmounts() + archivedTransactionRepository.sumAmounts());
+    }
+}
@@ -0,0 +1,61 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.dto.CoalescingMetricsDTO;
+import org.sigar.dto.QueryCoalescingMetricsDTO;
+import org.sigar.utils.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for read queries: identical concurrent calls (same property, query and arguments) share one
+ * database execution. A caller joining a running query may miss a write that committed after the query
+ * started, the same as if it had arrived a moment earlier. Results are shared, so loaders must return
+ * immutable values.
+ */
+@Service
+public class QueryCoalescer {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final Map<String, SingleFlight<QueryKey, Object>> queries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryCoalescer(@Value("${pg2.coalescing.enabled:true}") boolean enabled,
+                          @Value("${pg2.coalescing.timeout-ms:2000}") long timeoutMillis) {
+        this.enabled = enabled;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String query, List<?> arguments, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        SingleFlight<QueryKey, Object> flight = queries.computeIfAbsent(query, name -> new SingleFlight<>(timeout));
+        return (T) flight.execute(new QueryKey(PropertyContext.current(), arguments), loader::get);
+    }
+
+    public CoalescingMetricsDTO getMetrics() {
+        List<QueryCoalescingMetricsDTO> metrics = queries.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new QueryCoalescingMetricsDTO(
+                        entry.getKey(),
+                        entry.getValue().getExecutions(),
+                        entry.getValue().getCollapsed(),
+                        entry.getValue().getTimeouts(),
+                        entry.getValue().getInFlight()))
+                .toList();
+        return new CoalescingMetricsDTO(enabled, timeout.toMillis(), metrics);
+    }
+
+    private record QueryKey(String propertyId, List<?> arguments) {
+    }
+}
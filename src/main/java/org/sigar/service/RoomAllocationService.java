@@ -0,0 +1,89 @@
+package org.sigar.service;
+
+import org.sigar.dto.DTOConverter;
+import org.sigar.dto.RoomAllocationRequestDTO;
+import org.sigar.dto.RoomAllocationResponseDTO;
+import org.sigar.model.Room;
+import org.sigar.repo.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class RoomAllocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAllocationService.class);
+
+    private final RoomRepository roomRepository;
+    private final RoomAllocator roomAllocator;
+
+    @Autowired
+    public RoomAllocationService(RoomRepository roomRepository,
+                                 @Value("${pg2.allocation.node-budget:200000}") long nodeBudget) {
+        this.roomRepository = roomRepository;
+        this.roomAllocator = new RoomAllocator(nodeBudget);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RoomAllocationResponseDTO> allocate(RoomAllocationRequestDTO request) {
+        long start = System.nanoTime();
+        // Snapshot of the free rooms matching the hard requirements, the search runs entirely in memory
+        Map<Long, Room> rooms = roomRepository.findAvailableRooms().stream()
+                .filter(room -> matches(room, request))
+                .collect(Collectors.toMap(Room::getRoomId, Function.identity()));
+        List<RoomAllocator.Candidate> candidates = rooms.values().stream()
+                .map(room -> new RoomAllocator.Candidate(room.getRoomId(), room.getFloor(), room.getBeds().getCapacity(), room.getRent()))
+                .toList();
+
+        Optional<RoomAllocator.Allocation> allocation = Optional.empty();
+        boolean sameFloor = Boolean.TRUE.equals(request.sameFloor());
+        if (sameFloor) {
+            allocation = candidates.stream()
+                    .collect(Collectors.groupingBy(RoomAllocator.Candidate::floor))
+                    .values().stream()
+                    .map(floorRooms -> roomAllocator.allocate(floorRooms, request.groupSize(), request.maxTotalRent()))
+                    .flatMap(Optional::stream)
+                    .min(Comparator.comparingInt(RoomAllocator.Allocation::totalRent)
+                            .thenComparingInt(found -> found.rooms().size())
+                            .thenComparingInt(RoomAllocator.Allocation::totalBeds));
+        }
+        if (allocation.isEmpty()) {
+            sameFloor = false;
+            allocation = roomAllocator.allocate(candidates, request.groupSize(), request.maxTotalRent());
+        }
+        logger.info("Allocation search over {} candidate rooms took {} ms", candidates.size(), (System.nanoTime() - start) / 1_000_000);
+
+        boolean allocatedOnOneFloor = sameFloor;
+        return allocation.map(found -> new RoomAllocationResponseDTO(
+                found.rooms().stream()
+                        .map(candidate -> DTOConverter.convertToRoomDTO(rooms.get(candidate.roomId())))
+                        .toList(),
+                found.totalBeds(),
+                found.totalRent(),
+                allocatedOnOneFloor || found.rooms().stream().map(RoomAllocator.Candidate::floor).distinct().count() == 1,
+                found.optimal()));
+    }
+
+    private static boolean matches(Room room, RoomAllocationRequestDTO request) {
+        if (room.getBeds() == null || room.getRent() == null) {
+            return false;
+        }
+        if (request.beds() != null && !request.beds().isEmpty() && !request.beds().contains(room.getBeds())) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(request.needsAC()) && !room.isHasAC()) {
+            return false;
+        }
+        return !Boolean.TRUE.equals(request.needsKitchen()) || room.isHasKitchen();
+    }
+}
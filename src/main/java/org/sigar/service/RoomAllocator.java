@@ -0,0 +1,143 @@
+package org.sigar.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Finds the cheapest set of rooms that fits a group, then the one with fewest rooms and fewest spare beds.
+ * Within one capacity an optimal allocation always takes the cheapest rooms, and never more than
+ * ceil(groupSize / capacity) of them, so the search only branches on how many rooms of each capacity to take.
+ * That tree is at most four levels deep and is pruned with a per-bed rent lower bound.
+ */
+public class RoomAllocator {
+
+    public record Candidate(long roomId, int floor, int capacity, int rent) {
+    }
+
+    public record Allocation(List<Candidate> rooms, int totalBeds, int totalRent, boolean optimal) {
+    }
+
+    private final long nodeBudget;
+
+    public RoomAllocator(long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    public Optional<Allocation> allocate(List<Candidate> candidates, int groupSize, Integer maxTotalRent) {
+        Map<Integer, List<Candidate>> byCapacity = new TreeMap<>();
+        for (Candidate candidate : candidates) {
+            byCapacity.computeIfAbsent(candidate.capacity(), capacity -> new ArrayList<>()).add(candidate);
+        }
+        List<CapacityClass> classes = new ArrayList<>();
+        byCapacity.forEach((capacity, rooms) -> {
+            int usable = (groupSize + capacity - 1) / capacity;
+            List<Candidate> cheapest = rooms.stream()
+                    .sorted(Comparator.comparingInt(Candidate::rent).thenComparingLong(Candidate::roomId))
+                    .limit(usable)
+                    .toList();
+            classes.add(new CapacityClass(capacity, cheapest));
+        });
+        // Best rent per bed first, so the first complete branch is already a good incumbent
+        classes.sort(Comparator.comparingDouble(CapacityClass::bestRate));
+
+        Search search = new Search(classes, groupSize, maxTotalRent == null ? Integer.MAX_VALUE : maxTotalRent);
+        search.run(0, 0, 0, 0, new int[classes.size()]);
+        if (search.bestCounts == null) {
+            return Optional.empty();
+        }
+        List<Candidate> chosen = new ArrayList<>();
+        for (int i = 0; i < classes.size(); i++) {
+            chosen.addAll(classes.get(i).rooms.subList(0, search.bestCounts[i]));
+        }
+        return Optional.of(new Allocation(chosen, search.bestBeds, search.bestRent, !search.exhausted));
+    }
+
+    private static final class CapacityClass {
+        private final int capacity;
+        private final List<Candidate> rooms;
+        private final long[] prefixRent;
+
+        private CapacityClass(int capacity, List<Candidate> rooms) {
+            this.capacity = capacity;
+            this.rooms = rooms;
+            this.prefixRent = new long[rooms.size() + 1];
+            for (int i = 0; i < rooms.size(); i++) {
+                prefixRent[i + 1] = prefixRent[i] + rooms.get(i).rent();
+            }
+        }
+
+        private double bestRate() {
+            return rooms.isEmpty() ? Double.MAX_VALUE : (double) rooms.get(0).rent() / capacity;
+        }
+    }
+
+    private final class Search {
+        private final List<CapacityClass> classes;
+        private final int groupSize;
+        private final long maxTotalRent;
+        // Lowest rent per bed among classes i..n-1, for the lower bound
+        private final double[] minRateFrom;
+        private int[] bestCounts;
+        private int bestRent = Integer.MAX_VALUE;
+        private int bestRooms;
+        private int bestBeds;
+        private long nodes;
+        private boolean exhausted;
+
+        private Search(List<CapacityClass> classes, int groupSize, long maxTotalRent) {
+            this.classes = classes;
+            this.groupSize = groupSize;
+            this.maxTotalRent = maxTotalRent;
+            this.minRateFrom = new double[classes.size() + 1];
+            minRateFrom[classes.size()] = Double.MAX_VALUE;
+            for (int i = classes.size() - 1; i >= 0; i--) {
+                minRateFrom[i] = Math.min(minRateFrom[i + 1], classes.get(i).bestRate());
+            }
+        }
+
+        private void run(int classIndex, int beds, long rent, int rooms, int[] counts) {
+            if (++nodes > nodeBudget) {
+                exhausted = true;
+                return;
+            }
+            if (beds >= groupSize) {
+                consider(beds, rent, rooms, counts);
+                return;
+            }
+            if (classIndex == classes.size()) {
+                return;
+            }
+            double lowerBound = rent + (groupSize - beds) * minRateFrom[classIndex];
+            if (lowerBound > maxTotalRent || lowerBound > bestRent) {
+                return;
+            }
+            CapacityClass current = classes.get(classIndex);
+            int needed = (groupSize - beds + current.capacity - 1) / current.capacity;
+            for (int take = Math.min(needed, current.rooms.size()); take >= 0 && !exhausted; take--) {
+                counts[classIndex] = take;
+                run(classIndex + 1, beds + take * current.capacity, rent + current.prefixRent[take], rooms + take, counts);
+            }
+            counts[classIndex] = 0;
+        }
+
+        private void consider(int beds, long rent, int rooms, int[] counts) {
+            if (rent > maxTotalRent) {
+                return;
+            }
+            boolean better = bestCounts == null
+                    || rent < bestRent
+                    || (rent == bestRent && rooms < bestRooms)
+                    || (rent == bestRent && rooms == bestRooms && beds < bestBeds);
+            if (better) {
+                bestCounts = counts.clone();
+                bestRent = (int) rent;
+                bestRooms = rooms;
+                bestBeds = beds;
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package org.sigar.service;
 
+import org.sigar.Constants.enums.OutboxEventType;
+import org.sigar.dto.BulkOperationResultDTO;
 import org.sigar.dto.DTOConverter;
 import org.sigar.dto.RoomResponseDTO;
 import org.sigar.model.Guest;
 import org.sigar.model.Room;
+import org.sigar.repo.GuestRepository;
 import org.sigar.repo.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,34 +21,68 @@ import java.util.Optional;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final GuestRepository guestRepository;
     private final GuestRoomManager guestRoomManager;
+    private final OutboxService outboxService;
+    private final OccupancyCounters occupancyCounters;
+    private final QueryCoalescer queryCoalescer;
+    private final StayHistoryService stayHistoryService;
 
     @Autowired
-    public RoomService(RoomRepository roomRepository,GuestRoomManager guestRoomManager){
+    public RoomService(RoomRepository roomRepository,
+                       GuestRepository guestRepository,
+                       GuestRoomManager guestRoomManager,
+                       OutboxService outboxService,
+                       OccupancyCounters occupancyCounters,
+                       QueryCoalescer queryCoalescer,
+                       StayHistoryService stayHistoryService){
         this.roomRepository = roomRepository;
+        this.guestRepository = guestRepository;
         this.guestRoomManager = guestRoomManager;
+        this.outboxService = outboxService;
+        this.occupancyCounters = occupancyCounters;
+        this.queryCoalescer = queryCoalescer;
+        this.stayHistoryService = stayHistoryService;
     }
 
+    // Screens refreshing at the same time share one query
     public List<RoomResponseDTO> getAllRooms(){
-        List<Room> rooms =  roomRepository.findAll();
-        return DTOConverter.convertToRoomDTO(rooms);
+        return queryCoalescer.coalesce("rooms.all", List.of(),
+                () -> DTOConverter.convertToRoomDTO(roomRepository.findAllWithGuests()));
     }
 
+    @Transactional
     public Optional<Room> addGuestToRoom(Long roomId, Guest guest){
         Optional<Room> roomOptional = roomRepository.findById(roomId);
         if(roomOptional.isPresent()){
             Room room = roomOptional.get();
-            room.addGuest(guest);
+            boolean wasAvailable = room.isAvailable();
+            // Persist the guest itself first so the check-in event carries its generated ID
+            guest.setRoom(room);
+            Guest savedGuest = guestRepository.save(guest);
+            room.addGuest(savedGuest);
             roomRepository.save(room);
+            LocalDate checkIn = stayHistoryService.checkedIn(savedGuest, room);
+            occupancyCounters.guestCheckedIn(room, wasAvailable, checkIn);
+            outboxService.record(OutboxService.GUEST, savedGuest.getGuestId(), OutboxEventType.GUEST_CHECKED_IN,
+                    DTOConverter.covertToGuestDTO(savedGuest));
         }
         return roomOptional;
     }
     public Room addRoom(Room room){
-        return roomRepository.save(room);
+        Room savedRoom = roomRepository.save(room);
+        occupancyCounters.roomAdded(savedRoom);
+        return savedRoom;
     }
     public boolean removeRoom(Long roomId){
         return guestRoomManager.removeRoom(roomId);
     }
+    public BulkOperationResultDTO removeRooms(Collection<Long> roomIds){
+        return guestRoomManager.removeRooms(roomIds);
+    }
+    public BulkOperationResultDTO removeFloor(int floor){
+        return guestRoomManager.removeFloor(floor);
+    }
 }
 
 
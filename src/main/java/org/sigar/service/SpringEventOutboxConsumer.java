@@ -0,0 +1,31 @@
+package org.sigar.service;
+
+import org.sigar.events.DomainEvent;
+import org.sigar.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Hands outbox events to in-process @EventListener methods
+@Component
+public class SpringEventOutboxConsumer implements OutboxEventConsumer {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public SpringEventOutboxConsumer(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void accept(OutboxEvent event) {
+        eventPublisher.publishEvent(new DomainEvent(
+                event.getId(),
+                event.getPropertyId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getPayload(),
+                event.getCreatedAt()));
+    }
+}
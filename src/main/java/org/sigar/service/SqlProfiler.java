@@ -0,0 +1,364 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.SqlProfilerProperties;
+import org.sigar.dto.SqlEndpointProfileDTO;
+import org.sigar.dto.SqlFingerprintProfileDTO;
+import org.sigar.dto.SqlProfileDTO;
+import org.sigar.dto.SqlRequestProfileDTO;
+import org.sigar.dto.SqlStatementProfileDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the statements run on the property pools when pg2.profiler.enabled is set. Statements are reduced to a
+ * fingerprint (literals and IN lists replaced by ?) and attributed to the endpoint of the request running on the
+ * thread. Totals live in one-minute buckets of a rolling window, next to samples of the slowest requests and of
+ * requests that ran the same select over and over (N+1).
+ */
+@Service
+public class SqlProfiler {
+
+    public static final String BACKGROUND = "background";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin \\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_FINGERPRINTS = 10_000;
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private final SqlProfilerProperties properties;
+    private final ThreadLocal<RequestProfile> currentRequest = new ThreadLocal<>();
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    @Autowired
+    public SqlProfiler(SqlProfilerProperties properties) {
+        this.properties = properties;
+        this.buckets = new AtomicReferenceArray<>(Math.max(1, properties.getWindowMinutes()));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public static String fingerprint(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return IN_LIST.matcher(normalized).replaceAll("in (?...)");
+    }
+
+    public void beginRequest(String endpoint) {
+        currentRequest.set(new RequestProfile(endpoint, System.nanoTime()));
+    }
+
+    public void endRequest() {
+        RequestProfile request = currentRequest.get();
+        if (request == null) {
+            return;
+        }
+        currentRequest.remove();
+        long elapsedNanos = System.nanoTime() - request.startNanos;
+        Bucket bucket = bucket();
+        long statements = 0;
+        long sqlNanos = 0;
+        boolean nPlusOne = false;
+        for (Map.Entry<String, StatementTotals> entry : request.statements.entrySet()) {
+            StatementTotals totals = entry.getValue();
+            statements += totals.executions;
+            sqlNanos += totals.nanos;
+            if (isNPlusOne(entry.getKey(), totals)) {
+                bucket.fingerprint(request.endpoint, entry.getKey()).nPlusOneRequests.increment();
+                nPlusOne = true;
+            }
+        }
+        EndpointStats endpoint = bucket.endpoint(request.endpoint);
+        endpoint.requests.increment();
+        endpoint.statements.add(statements);
+        endpoint.sqlNanos.add(sqlNanos);
+        endpoint.maxElapsedNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (nPlusOne) {
+            endpoint.nPlusOneRequests.increment();
+        }
+        if (statements == 0) {
+            return;
+        }
+        SqlRequestProfileDTO sample = toSample(request, elapsedNanos, sqlNanos);
+        bucket.offerSlowest(sample, properties.getSampleRequests());
+        if (nPlusOne) {
+            bucket.offerNPlusOne(sample, properties.getSampleRequests());
+        }
+    }
+
+    // A statement finished executing, rows are the update count (selects report theirs from the result set)
+    public void executed(String sql, long nanos, long rows) {
+        if (sql == null) {
+            return;
+        }
+        String fingerprint = cachedFingerprint(sql);
+        RequestProfile request = currentRequest.get();
+        FingerprintStats stats = bucket().fingerprint(request != null ? request.endpoint : BACKGROUND, fingerprint);
+        stats.executions.increment();
+        stats.nanos.add(nanos);
+        stats.rows.add(rows);
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (request != null) {
+            if (request.propertyId == null) {
+                request.propertyId = PropertyContext.current();
+            }
+            StatementTotals totals = request.statements.computeIfAbsent(fingerprint, key -> new StatementTotals());
+            totals.executions++;
+            totals.nanos += nanos;
+            totals.rows += rows;
+        }
+    }
+
+    public void rowsRead(String sql, long rows) {
+        if (sql == null || rows == 0) {
+            return;
+        }
+        String fingerprint = cachedFingerprint(sql);
+        RequestProfile request = currentRequest.get();
+        bucket().fingerprint(request != null ? request.endpoint : BACKGROUND, fingerprint).rows.add(rows);
+        if (request != null) {
+            StatementTotals totals = request.statements.get(fingerprint);
+            if (totals != null) {
+                totals.rows += rows;
+            }
+        }
+    }
+
+    public SqlProfileDTO getProfile() {
+        List<Bucket> window = window();
+        Map<String, EndpointTotals> endpoints = new HashMap<>();
+        Map<FingerprintKey, FingerprintTotals> fingerprintTotals = new HashMap<>();
+        List<SqlRequestProfileDTO> slowest = new ArrayList<>();
+        List<SqlRequestProfileDTO> nPlusOne = new ArrayList<>();
+        for (Bucket bucket : window) {
+            bucket.endpoints.forEach((name, stats) -> endpoints.computeIfAbsent(name, key -> new EndpointTotals()).add(stats));
+            bucket.fingerprints.forEach((key, stats) -> fingerprintTotals.computeIfAbsent(key, k -> new FingerprintTotals()).add(stats));
+            synchronized (bucket) {
+                slowest.addAll(bucket.slowest);
+                nPlusOne.addAll(bucket.nPlusOne);
+            }
+        }
+        // Statements outside any request are counted by fingerprint only
+        fingerprintTotals.forEach((key, totals) -> {
+            if (key.endpoint().equals(BACKGROUND)) {
+                EndpointTotals background = endpoints.computeIfAbsent(BACKGROUND, name -> new EndpointTotals());
+                background.statements += totals.executions;
+                background.sqlNanos += totals.nanos;
+            }
+        });
+
+        List<SqlEndpointProfileDTO> endpointProfiles = endpoints.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, EndpointTotals> entry) -> entry.getValue().sqlNanos).reversed())
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .toList();
+        List<SqlFingerprintProfileDTO> topFingerprints = fingerprintTotals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<FingerprintKey, FingerprintTotals> entry) -> entry.getValue().nanos).reversed())
+                .limit(properties.getTopN())
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .toList();
+        slowest.sort(Comparator.comparing(SqlRequestProfileDTO::elapsedMillis).reversed());
+        nPlusOne.sort(Comparator.comparing(SqlRequestProfileDTO::finishedAt).reversed());
+        return new SqlProfileDTO(isEnabled(), properties.getWindowMinutes(), endpointProfiles, topFingerprints,
+                slowest.stream().limit(properties.getSampleRequests()).toList(),
+                nPlusOne.stream().limit(properties.getSampleRequests()).toList());
+    }
+
+    public void reset() {
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            buckets.set(slot, null);
+        }
+    }
+
+    private boolean isNPlusOne(String fingerprint, StatementTotals totals) {
+        return totals.executions >= properties.getRepeatedSelectThreshold() && fingerprint.startsWith("select");
+    }
+
+    private SqlRequestProfileDTO toSample(RequestProfile request, long elapsedNanos, long sqlNanos) {
+        List<SqlStatementProfileDTO> statements = request.statements.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, StatementTotals> entry) -> entry.getValue().nanos).reversed())
+                .map(entry -> new SqlStatementProfileDTO(entry.getKey(), entry.getValue().executions, entry.getValue().rows,
+                        millis(entry.getValue().nanos), isNPlusOne(entry.getKey(), entry.getValue())))
+                .toList();
+        return new SqlRequestProfileDTO(request.endpoint, request.propertyId, LocalDateTime.now(),
+                millis(elapsedNanos), millis(sqlNanos), statements);
+    }
+
+    private String cachedFingerprint(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            // Statements built with inlined literals never repeat, start over rather than grow without bound
+            if (fingerprints.size() >= MAX_CACHED_FINGERPRINTS) {
+                fingerprints.clear();
+            }
+            fingerprint = fingerprint(sql);
+            fingerprints.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private Bucket bucket() {
+        long minute = System.currentTimeMillis() / MINUTE_MILLIS;
+        int slot = (int) (minute % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        if (bucket != null && bucket.minute >= minute) {
+            return bucket;
+        }
+        Bucket fresh = new Bucket(minute);
+        return buckets.compareAndSet(slot, bucket, fresh) ? fresh : buckets.get(slot);
+    }
+
+    private List<Bucket> window() {
+        long oldest = System.currentTimeMillis() / MINUTE_MILLIS - buckets.length();
+        List<Bucket> window = new ArrayList<>();
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.minute > oldest) {
+                window.add(bucket);
+            }
+        }
+        return window;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private record FingerprintKey(String endpoint, String fingerprint) {
+    }
+
+    private static class RequestProfile {
+        private final String endpoint;
+        private final long startNanos;
+        private final Map<String, StatementTotals> statements = new LinkedHashMap<>();
+        private String propertyId;
+
+        RequestProfile(String endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static class StatementTotals {
+        private long executions;
+        private long rows;
+        private long nanos;
+    }
+
+    private static class FingerprintStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+    }
+
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder sqlNanos = new LongAdder();
+        private final AtomicLong maxElapsedNanos = new AtomicLong();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+    }
+
+    private static class FingerprintTotals {
+        private long executions;
+        private long rows;
+        private long nanos;
+        private long maxNanos;
+        private long nPlusOneRequests;
+
+        void add(FingerprintStats stats) {
+            executions += stats.executions.sum();
+            rows += stats.rows.sum();
+            nanos += stats.nanos.sum();
+            maxNanos = Math.max(maxNanos, stats.maxNanos.get());
+            nPlusOneRequests += stats.nPlusOneRequests.sum();
+        }
+
+        SqlFingerprintProfileDTO toDTO(FingerprintKey key) {
+            return new SqlFingerprintProfileDTO(key.endpoint(), key.fingerprint(), executions, rows,
+                    millis(nanos), millis(maxNanos), nPlusOneRequests);
+        }
+    }
+
+    private static class EndpointTotals {
+        private long requests;
+        private long statements;
+        private long sqlNanos;
+        private long maxElapsedNanos;
+        private long nPlusOneRequests;
+
+        void add(EndpointStats stats) {
+            requests += stats.requests.sum();
+            statements += stats.statements.sum();
+            sqlNanos += stats.sqlNanos.sum();
+            maxElapsedNanos = Math.max(maxElapsedNanos, stats.maxElapsedNanos.get());
+            nPlusOneRequests += stats.nPlusOneRequests.sum();
+        }
+
+        SqlEndpointProfileDTO toDTO(String endpoint) {
+            Double perRequest = requests > 0 ? Math.round(statements * 100.0 / requests) / 100.0 : null;
+            return new SqlEndpointProfileDTO(endpoint, requests, statements, perRequest, millis(sqlNanos),
+                    millis(maxElapsedNanos), nPlusOneRequests);
+        }
+    }
+
+    private static class Bucket {
+        private final long minute;
+        private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+        private final Map<FingerprintKey, FingerprintStats> fingerprints = new ConcurrentHashMap<>();
+        // Min-heap on elapsed time so the fastest kept sample is the one replaced
+        private final PriorityQueue<SqlRequestProfileDTO> slowest =
+                new PriorityQueue<>(Comparator.comparing(SqlRequestProfileDTO::elapsedMillis));
+        private final Deque<SqlRequestProfileDTO> nPlusOne = new ArrayDeque<>();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        EndpointStats endpoint(String endpoint) {
+            return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        }
+
+        FingerprintStats fingerprint(String endpoint, String fingerprint) {
+            return fingerprints.computeIfAbsent(new FingerprintKey(endpoint, fingerprint), key -> new FingerprintStats());
+        }
+
+        synchronized void offerSlowest(SqlRequestProfileDTO sample, int limit) {
+            slowest.offer(sample);
+            if (slowest.size() > limit) {
+                slowest.poll();
+            }
+        }
+
+        synchronized void offerNPlusOne(SqlRequestProfileDTO sample, int limit) {
+            nPlusOne.addFirst(sample);
+            if (nPlusOne.size() > limit) {
+                nPlusOne.removeLast();
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package org.sigar.service;
+
+import jakarta.annotation.PreDestroy;
+import org.sigar.Constants.enums.StatementFormat;
+import org.sigar.Constants.enums.StatementRunStatus;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.configs.PropertyContext;
+import org.sigar.dto.StatementRunDTO;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.PaymentTransactionRepository.StatementLineView;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.repo.RentalContractRepository.StatementContractView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Monthly statements for every rental contract of a property. Contracts are read in keyset batches together
+ * with the month's transactions of the whole batch, statements are rendered on a fork-join pool while the
+ * next batch is loaded, and written through file channels into a directory per month or a single zip.
+ */
+@Service
+public class StatementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementService.class);
+
+    private static final int MAX_RUNS_KEPT = 50;
+    private static final int ZIP_BUFFER_SIZE = 64 * 1024;
+    private static final Comparator<StatementLineView> LINE_ORDER = Comparator
+            .comparing(StatementLineView::getRentalContractId)
+            .thenComparing(StatementLineView::getTransactionDate)
+            .thenComparing(StatementLineView::getTransactionId);
+
+    private final RentalContractRepository contractRepository;
+    private final PaymentTransactionRepository transactionRepository;
+    private final ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    private final ArchiveService archiveService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path outputDirectory;
+    private final int batchSize;
+    private final ForkJoinPool renderPool;
+    // Runs are queued and executed one at a time, each one already uses the whole render pool
+    private final ExecutorService runExecutor;
+    private final AtomicLong runIds = new AtomicLong();
+    private final Map<Long, StatementRun> runs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StatementService(RentalContractRepository contractRepository,
+                            PaymentTransactionRepository transactionRepository,
+                            ArchivedPaymentTransactionRepository archivedTransactionRepository,
+                            ArchiveService archiveService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${pg2.statements.dir:./data/statements}") String outputDirectory,
+                            @Value("${pg2.statements.batch-size:500}") int batchSize,
+                            @Value("${pg2.statements.parallelism:0}") int parallelism) {
+        this.contractRepository = contractRepository;
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.archiveService = archiveService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.outputDirectory = Path.of(outputDirectory);
+        this.batchSize = batchSize;
+        this.renderPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.runExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statement-runs");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public StatementRunDTO start(YearMonth month, StatementFormat format) {
+        String propertyId = PropertyContext.current();
+        StatementRun run = new StatementRun(runIds.incrementAndGet(), propertyId, month, format);
+        runs.put(run.id, run);
+        evictFinishedRuns();
+        runExecutor.execute(() -> PropertyContext.runIn(propertyId, () -> execute(run)));
+        return run.toDTO();
+    }
+
+    public Optional<StatementRunDTO> getRun(long runId) {
+        return Optional.ofNullable(runs.get(runId))
+                .filter(run -> run.propertyId.equals(PropertyContext.current()))
+                .map(StatementRun::toDTO);
+    }
+
+    // Newest first
+    public List<StatementRunDTO> getRuns() {
+        String propertyId = PropertyContext.current();
+        return runs.values().stream()
+                .filter(run -> run.propertyId.equals(propertyId))
+                .sorted(Comparator.comparingLong((StatementRun run) -> run.id).reversed())
+                .map(StatementRun::toDTO)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        renderPool.shutdownNow();
+    }
+
+    private void execute(StatementRun run) {
+        run.startedAt = System.nanoTime();
+        run.status = StatementRunStatus.RUNNING;
+        try {
+            run.totalContracts = contractRepository.count();
+            logger.info("Generating {} statements of property {} for {} into a {}",
+                    run.totalContracts, run.propertyId, run.month, run.format);
+            Path output = run.format == StatementFormat.ZIP ? writeZip(run) : writeDirectory(run);
+            run.output = output.toAbsolutePath().toString();
+            run.finishedAt = System.nanoTime();
+            run.status = StatementRunStatus.COMPLETED;
+            StatementRunDTO result = run.toDTO();
+            logger.info("Wrote {} statements ({} transactions, {} bytes) of property {} for {} in {} ms, {} statements/s, to {}",
+                    result.statementsWritten(), result.transactionsIncluded(), result.bytesWritten(), run.propertyId,
+                    run.month, result.elapsedMillis(), result.statementsPerSecond(), run.output);
+        } catch (RuntimeException | IOException e) {
+            run.error = e.toString();
+            run.finishedAt = System.nanoTime();
+            run.status = StatementRunStatus.FAILED;
+            logger.error("Statement run {} of property {} for {} failed", run.id, run.propertyId, run.month, e);
+        }
+    }
+
+    // Each render task writes its own file, so the writes run in parallel as well
+    private Path writeDirectory(StatementRun run) throws IOException {
+        Path directory = outputDirectory.resolve(run.propertyId).resolve(run.month.toString());
+        Files.createDirectories(directory);
+        renderAll(run, directory, batch -> {
+        });
+        return directory;
+    }
+
+    // Zip entries have to be written one after the other, the archive only replaces an older one once complete
+    private Path writeZip(StatementRun run) throws IOException {
+        Path archive = outputDirectory.resolve(run.propertyId).resolve("statements-" + run.month + ".zip");
+        Path partial = archive.resolveSibling(archive.getFileName() + ".part");
+        Files.createDirectories(archive.getParent());
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), ZIP_BUFFER_SIZE))) {
+            renderAll(run, null, batch -> {
+                for (RenderedStatement statement : batch) {
+                    zip.putNextEntry(new ZipEntry(fileName(statement.contractId())));
+                    zip.write(statement.content());
+                    zip.closeEntry();
+                }
+            });
+        }
+        Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return archive;
+    }
+
+    private void renderAll(StatementRun run, Path directory, BatchWriter batchWriter) throws IOException {
+        LocalDate from = run.month.atDay(1);
+        LocalDate to = run.month.atEndOfMonth();
+        long afterId = 0;
+        ForkJoinTask<List<RenderedStatement>> rendering = null;
+        while (true) {
+            long cursor = afterId;
+            StatementBatch batch = readOnlyTransaction.execute(status -> loadBatch(cursor, from, to));
+            if (rendering != null) {
+                completeBatch(run, rendering.join(), batchWriter);
+            }
+            if (batch.contracts().isEmpty()) {
+                return;
+            }
+            rendering = renderPool.submit(() -> batch.contracts().parallelStream()
+                    .map(contract -> render(run.month, contract, batch.linesOf(contract.getId()), directory))
+                    .toList());
+            afterId = batch.contracts().get(batch.contracts().size() - 1).getId();
+        }
+    }
+
+    private StatementBatch loadBatch(long afterId, LocalDate from, LocalDate to) {
+        List<StatementContractView> contracts = contractRepository.findStatementContractsAfter(afterId, PageRequest.of(0, batchSize));
+        if (contracts.isEmpty()) {
+            return new StatementBatch(contracts, Map.of());
+        }
+        List<Long> contractIds = contracts.stream().map(StatementContractView::getId).toList();
+        List<StatementLineView> lines = transactionRepository.findStatementLines(contractIds, from, to);
+        if (archiveService.archiveMayHoldTransactionsFrom(from)) {
+            lines = withArchivedLines(lines, archivedTransactionRepository.findStatementLines(contractIds, from, to));
+        }
+        return new StatementBatch(contracts, lines.stream()
+                .collect(Collectors.groupingBy(StatementLineView::getRentalContractId)));
+    }
+
+    // A transaction archived between the two queries shows up in both, it is only printed once
+    private static List<StatementLineView> withArchivedLines(List<StatementLineView> hot, List<StatementLineView> archived) {
+        Map<Long, StatementLineView> byId = new LinkedHashMap<>();
+        archived.forEach(line -> byId.put(line.getTransactionId(), line));
+        hot.forEach(line -> byId.putIfAbsent(line.getTransactionId(), line));
+        return byId.values().stream().sorted(LINE_ORDER).toList();
+    }
+
+    private void completeBatch(StatementRun run, List<RenderedStatement> batch, BatchWriter batchWriter) throws IOException {
+        batchWriter.write(batch);
+        long before = run.statementsWritten;
+        for (RenderedStatement statement : batch) {
+            run.transactionsIncluded += statement.transactions();
+            run.bytesWritten += statement.content().length;
+        }
+        run.statementsWritten = before + batch.size();
+        // Progress in steps of ten percent
+        if (run.totalContracts > 0 && before * 10 / run.totalContracts != run.statementsWritten * 10 / run.totalContracts) {
+            logger.info("Statement run {} of property {}: {}/{} statements", run.id, run.propertyId,
+                    run.statementsWritten, run.totalContracts);
+        }
+    }
+
+    private static RenderedStatement render(YearMonth month, StatementContractView contract, List<StatementLineView> lines,
+                                            Path directory) {
+        StringBuilder text = new StringBuilder(512 + lines.size() * 64);
+        text.append("Statement for ").append(month).append('\n')
+                .append("Rental contract: ").append(contract.getId()).append('\n')
+                .append("Guest: ").append(orDash(contract.getGuestName())).append('\n')
+                .append("Room: ").append(orDash(contract.getRoomNumber())).append('\n')
+                .append("Monthly rent: ").append(contract.getMonthlyRentAmount() != null
+                        ? String.format("%.2f", contract.getMonthlyRentAmount()) : "-").append('\n')
+                .append("Advance paid: ").append(orDash(contract.getAdvanceAmountPaid())).append('\n')
+                .append("Next rent due: ").append(orDash(contract.getRentDueDate())).append("\n\n")
+                .append(String.format("%-12s %-18s %10s  %s\n", "Date", "Type", "Amount", "Notes"));
+
+        long rent = 0;
+        long advance = 0;
+        long utilities = 0;
+        long other = 0;
+        for (StatementLineView line : lines) {
+            long amount = line.getAmount() != null ? line.getAmount() : 0;
+            text.append(String.format("%-12s %-18s %10d  %s\n", line.getTransactionDate(), line.getTransactionType(),
+                    amount, line.getNotes() != null ? line.getNotes() : ""));
+            TransactionType type = line.getTransactionType() != null ? line.getTransactionType() : TransactionType.MISCELLANEOUS;
+            switch (type) {
+                case RENT_PAYMENT -> rent += amount;
+                case ADVANCE, SECURITY_DEPOSIT -> advance += amount;
+                case ELECTRICITY, WATER, MAINTENANCE -> utilities += amount;
+                case MISCELLANEOUS -> other += amount;
+            }
+        }
+        if (lines.isEmpty()) {
+            text.append("No transactions this month\n");
+        }
+        text.append('\n')
+                .append(String.format("%-20s %10d\n", "Rent", rent))
+                .append(String.format("%-20s %10d\n", "Advance and deposit", advance))
+                .append(String.format("%-20s %10d\n", "Utilities", utilities))
+                .append(String.format("%-20s %10d\n", "Other", other))
+                .append(String.format("%-20s %10d\n", "Total", rent + advance + utilities + other));
+
+        RenderedStatement statement = new RenderedStatement(contract.getId(), lines.size(),
+                text.toString().getBytes(StandardCharsets.UTF_8));
+        if (directory != null) {
+            writeFile(directory.resolve(fileName(statement.contractId())), statement.content());
+        }
+        return statement;
+    }
+
+    private static void writeFile(Path file, byte[] content) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileName(long contractId) {
+        return "contract-" + contractId + ".txt";
+    }
+
+    private static String orDash(Object value) {
+        return value != null ? value.toString() : "-";
+    }
+
+    private void evictFinishedRuns() {
+        int excess = runs.size() - MAX_RUNS_KEPT;
+        if (excess > 0) {
+            runs.values().stream()
+                    .filter(StatementRun::isFinished)
+                    .map(run -> run.id)
+                    .sorted()
+                    .limit(excess)
+                    .toList()
+                    .forEach(runs::remove);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<RenderedStatement> batch) throws IOException;
+    }
+
+    private record StatementBatch(List<StatementContractView> contracts, Map<Long, List<StatementLineView>> lines) {
+        List<StatementLineView> linesOf(long contractId) {
+            return lines.getOrDefault(contractId, List.of());
+        }
+    }
+
+    private record RenderedStatement(long contractId, int transactions, byte[] content) {
+    }
+
+    // Counters are only written by the run thread and read by status requests
+    private static final class StatementRun {
+        private final long id;
+        private final String propertyId;
+        private final YearMonth month;
+        private final StatementFormat format;
+        private volatile StatementRunStatus status = StatementRunStatus.QUEUED;
+        private volatile long totalContracts;
+        private volatile long statementsWritten;
+        private volatile long transactionsIncluded;
+        private volatile long bytesWritten;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile String output;
+        private volatile String error;
+
+        private StatementRun(long id, String propertyId, YearMonth month, StatementFormat format) {
+            this.id = id;
+            this.propertyId = propertyId;
+            this.month = month;
+            this.format = format;
+        }
+
+        private boolean isFinished() {
+            return status == StatementRunStatus.COMPLETED || status == StatementRunStatus.FAILED;
+        }
+
+        private StatementRunDTO toDTO() {
+            long elapsedNanos = switch (status) {
+                case QUEUED -> 0;
+                case RUNNING -> System.nanoTime() - startedAt;
+                case COMPLETED, FAILED -> finishedAt - startedAt;
+            };
+            long written = statementsWritten;
+            return new StatementRunDTO(id, propertyId, month, format, status, totalContracts, written,
+                    transactionsIncluded, bytesWritten, elapsedNanos / 1_000_000,
+                    elapsedNanos > 0 ? written * 1_000_000_000L / elapsedNanos : written, output, error);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.sigar.service;
+
+import org.sigar.configs.PropertyContext;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.StayDTO;
+import org.sigar.dto.StayOccupancyDTO;
+import org.sigar.model.ArchivedGuestStay;
+import org.sigar.model.Guest;
+import org.sigar.model.GuestStay;
+import org.sigar.model.Room;
+import org.sigar.repo.ArchivedGuestStayRepository;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.GuestStayRepository;
+import org.sigar.utils.AfterCommit;
+import org.sigar.utils.IntervalTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Stay history: a GuestStay row per check-in, closed on checkout, and an interval tree per room over all stays
+ * of a property, so "who was in room R on day D" and overlap queries over a range take O(log n + k).
+ * The trees hold archived stays as well, archiving only moves rows between tables.
+ * The trees are loaded at startup and only change after the surrounding transaction commits.
+ */
+@Service
+@Lazy(false)
+public class StayHistoryService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(StayHistoryService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // End of a stay that is still open, contained in every later day
+    private static final long OPEN_END = Long.MAX_VALUE;
+    private static final Comparator<StayDTO> BY_ROOM_AND_CHECK_IN = Comparator
+            .comparing(StayDTO::roomId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(StayDTO::checkIn)
+            .thenComparing(StayDTO::stayId);
+
+    private final GuestStayRepository stayRepository;
+    private final ArchivedGuestStayRepository archivedStayRepository;
+    private final GuestRepository guestRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final OccupancyCounters occupancyCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Map<Long, IntervalTree<StayDTO>>> trees = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StayHistoryService(GuestStayRepository stayRepository,
+                              ArchivedGuestStayRepository archivedStayRepository,
+                              GuestRepository guestRepository,
+                              PropertyRegistry propertyRegistry,
+                              OccupancyCounters occupancyCounters,
+                              PlatformTransactionManager transactionManager) {
+        this.stayRepository = stayRepository;
+        this.archivedStayRepository = archivedStayRepository;
+        this.guestRepository = guestRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.occupancyCounters = occupancyCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs before the web server accepts requests. Guests already in a room before stays were recorded
+    // get an open stay from their date of occupancy, the occupancy counters count them as arrivals then.
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String propertyId : propertyRegistry.getPropertyIds()) {
+            PropertyContext.runIn(propertyId, () -> {
+                int backfilled = transactionTemplate.execute(status -> backfillCurrentStays());
+                if (backfilled > 0) {
+                    occupancyCounters.reseedAfterCommit();
+                }
+                long loaded = load(treesOf(propertyId));
+                logger.info("Loaded {} stays of property {} ({} backfilled from current guests)", loaded, propertyId, backfilled);
+            });
+        }
+    }
+
+    // Called inside the check-in transaction, returns the day the stay starts
+    public LocalDate checkedIn(Guest guest, Room room) {
+        LocalDate checkIn = guest.getDateOfOccupancy() != null ? guest.getDateOfOccupancy() : LocalDate.now();
+        GuestStay stay = stayRepository.save(new GuestStay(guest.getGuestId(), guest.getName(), room.getRoomId(),
+                room.getRoomNumber(), checkIn));
+        StayDTO saved = toDTO(stay);
+        Map<Long, IntervalTree<StayDTO>> rooms = treesOf(PropertyContext.current());
+        AfterCommit.run(() -> put(rooms, saved));
+        return checkIn;
+    }
+
+    // Closes the open stays of the guests with today's date, called before the guests are deleted
+    public void checkedOut(Collection<Long> guestIds) {
+        if (!guestIds.isEmpty()) {
+            close(stayRepository.findOpenStaysByGuestIdIn(guestIds));
+        }
+    }
+
+    // Guests of a removed room stay registered but are no longer in any room
+    public void roomsRemoved(Collection<Long> roomIds) {
+        if (!roomIds.isEmpty()) {
+            close(stayRepository.findOpenStaysByRoomIdIn(roomIds));
+        }
+    }
+
+    public List<StayDTO> getStays(LocalDate from, LocalDate to) {
+        List<StayDTO> stays = new ArrayList<>();
+        for (IntervalTree<StayDTO> tree : treesOf(PropertyContext.current()).values()) {
+            stays.addAll(overlapping(tree, from, to));
+        }
+        stays.sort(BY_ROOM_AND_CHECK_IN);
+        return stays;
+    }
+
+    public List<StayDTO> getRoomStays(long roomId, LocalDate from, LocalDate to) {
+        IntervalTree<StayDTO> tree = treesOf(PropertyContext.current()).get(roomId);
+        return tree != null ? overlapping(tree, from, to) : List.of();
+    }
+
+    public StayOccupancyDTO getOccupancy(LocalDate from, LocalDate to) {
+        List<StayDTO> stays = getStays(from, to);
+        Set<Long> guests = new HashSet<>();
+        Set<Long> rooms = new HashSet<>();
+        long guestDays = 0;
+        for (StayDTO stay : stays) {
+            guests.add(stay.guestId());
+            rooms.add(stay.roomId());
+            LocalDate start = stay.checkIn().isAfter(from) ? stay.checkIn() : from;
+            LocalDate end = stay.checkOut() != null && stay.checkOut().isBefore(to) ? stay.checkOut() : to;
+            guestDays += end.toEpochDay() - start.toEpochDay() + 1;
+        }
+        return new StayOccupancyDTO(PropertyContext.current(), from, to, (long) stays.size(), (long) guests.size(),
+                (long) rooms.size(), guestDays);
+    }
+
+    private int backfillCurrentStays() {
+        if (stayRepository.count() > 0 || archivedStayRepository.count() > 0) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        List<GuestStay> stays = guestRepository.findCurrentStays().stream()
+                .map(view -> new GuestStay(view.getGuestId(), view.getName(), view.getRoomId(), view.getRoomNumber(),
+                        view.getDateOfOccupancy() != null ? view.getDateOfOccupancy() : today))
+                .toList();
+        stayRepository.saveAll(stays);
+        return stays.size();
+    }
+
+    private long load(Map<Long, IntervalTree<StayDTO>> rooms) {
+        long archived = load(rooms, afterId -> archivedStayRepository.findByIdGreaterThanOrderById(afterId,
+                PageRequest.of(0, LOAD_BATCH_SIZE)).stream().map(StayHistoryService::toDTO).toList());
+        return archived + load(rooms, afterId -> stayRepository.findByIdGreaterThanOrderById(afterId,
+                PageRequest.of(0, LOAD_BATCH_SIZE)).stream().map(StayHistoryService::toDTO).toList());
+    }
+
+    private static long load(Map<Long, IntervalTree<StayDTO>> rooms, LongFunction<List<StayDTO>> batchAfter) {
+        long afterId = 0;
+        long loaded = 0;
+        while (true) {
+            List<StayDTO> batch = batchAfter.apply(afterId);
+            if (batch.isEmpty()) {
+                return loaded;
+            }
+            batch.forEach(stay -> put(rooms, stay));
+            loaded += batch.size();
+            afterId = batch.get(batch.size() - 1).stayId();
+        }
+    }
+
+    private void close(List<GuestStay> openStays) {
+        if (openStays.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<StayDTO> closed = openStays.stream()
+                .map(stay -> toDTO(stay, stay.getCheckIn().isAfter(today) ? stay.getCheckIn() : today))
+                .toList();
+        stayRepository.closeStays(closed.stream().map(StayDTO::stayId).toList(), today);
+        Map<Long, IntervalTree<StayDTO>> rooms = treesOf(PropertyContext.current());
+        AfterCommit.run(() -> closed.forEach(stay -> put(rooms, stay)));
+    }
+
+    // Re-inserting a stay with the same check-in and id replaces its end
+    private static void put(Map<Long, IntervalTree<StayDTO>> rooms, StayDTO stay) {
+        IntervalTree<StayDTO> tree = rooms.computeIfAbsent(stay.roomId() != null ? stay.roomId() : 0L, roomId -> new IntervalTree<>());
+        long end = stay.checkOut() != null ? stay.checkOut().toEpochDay() : OPEN_END;
+        synchronized (tree) {
+            tree.insert(stay.checkIn().toEpochDay(), end, stay.stayId(), stay);
+        }
+    }
+
+    private static List<StayDTO> overlapping(IntervalTree<StayDTO> tree, LocalDate from, LocalDate to) {
+        synchronized (tree) {
+            return tree.overlapping(from.toEpochDay(), to.toEpochDay());
+        }
+    }
+
+    private Map<Long, IntervalTree<StayDTO>> treesOf(String propertyId) {
+        return trees.computeIfAbsent(propertyId, id -> new ConcurrentHashMap<>());
+    }
+
+    private static StayDTO toDTO(GuestStay stay) {
+        return toDTO(stay, stay.getCheckOut());
+    }
+
+    private static StayDTO toDTO(ArchivedGuestStay stay) {
+        return new StayDTO(stay.getId(), stay.getGuestId(), stay.getGuestName(), stay.getRoomId(), stay.getRoomNumber(),
+                stay.getCheckIn(), stay.getCheckOut());
+    }
+
+    private static StayDTO toDTO(GuestStay stay, LocalDate checkOut) {
+        return new StayDTO(stay.getId(), stay.getGuestId(), stay.getGuestName(), stay.getRoomId(), stay.getRoomNumber(),
+                stay.getCheckIn(), checkOut);
+    }
+}
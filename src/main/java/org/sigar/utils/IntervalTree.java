@@ -0,0 +1,195 @@
+package org.sigar.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AVL tree of closed intervals [start, end], ordered by start and then by a caller supplied id so equal starts
+ * can coexist. Every node also keeps the largest end in its subtree, which lets point and overlap queries skip
+ * whole subtrees: both run in O(log n + k) for k results, inserts and removals in O(log n).
+ * Not thread-safe.
+ */
+public class IntervalTree<V> {
+
+    private Node<V> root;
+    private int size;
+
+    public void insert(long start, long end, long id, V value) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval ends before it starts: [" + start + ", " + end + "]");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    // The interval is found by its start and id, returns false when it is not in the tree
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    // Values of all intervals containing the point, in start order
+    public List<V> containing(long point) {
+        return overlapping(point, point);
+    }
+
+    // Values of all intervals sharing at least one point with [from, to], in start order
+    public List<V> overlapping(long from, long to) {
+        List<V> values = new ArrayList<>();
+        visitOverlapping(root, from, to, values::add);
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int height() {
+        return height(root);
+    }
+
+    private static <V> void visitOverlapping(Node<V> node, long from, long to, Consumer<V> visitor) {
+        // Nothing below ends late enough to reach the range
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        visitOverlapping(node.left, from, to, visitor);
+        // Everything to the right starts after this node, so after the range as well
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            visitor.accept(node.value);
+        }
+        visitOverlapping(node.right, from, to, visitor);
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) {
+            size++;
+            return added;
+        }
+        int order = compare(added.start, added.id, node);
+        if (order < 0) {
+            node.left = insert(node.left, added);
+        } else if (order > 0) {
+            node.right = insert(node.right, added);
+        } else {
+            node.end = added.end;
+            node.value = added.value;
+        }
+        return balance(node);
+    }
+
+    private Node<V> remove(Node<V> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            // Replace with the smallest node of the right subtree
+            Node<V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = node.right;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node<V> removeMin(Node<V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int compare(long start, long id, Node<?> node) {
+        int order = Long.compare(start, node.start);
+        return order != 0 ? order : Long.compare(id, node.id);
+    }
+
+    private Node<V> balance(Node<V> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static final class Node<V> {
+        private final long start;
+        private final long id;
+        private long end;
+        private long maxEnd;
+        private int height = 1;
+        private V value;
+        private Node<V> left;
+        private Node<V> right;
+
+        private Node(long start, long end, long id, V value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+            this.value = value;
+        }
+    }
+}
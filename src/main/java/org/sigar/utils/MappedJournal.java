@@ -0,0 +1,184 @@
+package org.sigar.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of fixed-size records in memory-mapped segment files. A new segment is started when the
+ * current one is full. Each record is [payload length][payload][checksum]; the length is written last and
+ * doubles as the "record present" marker, so a torn write at the tail is detected and dropped on open.
+ * Appends are synchronized; replay maps each segment read-only and walks it sequentially without allocating.
+ */
+public class MappedJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    @FunctionalInterface
+    public interface PayloadWriter {
+        // Writes exactly payloadSize bytes at the buffer's absolute offset
+        void write(MappedByteBuffer buffer, int offset);
+    }
+
+    @FunctionalInterface
+    public interface PayloadReader {
+        void read(MappedByteBuffer buffer, int offset);
+    }
+
+    private final Path directory;
+    private final int payloadSize;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private long segmentNumber;
+    private MappedByteBuffer segment;
+    private int position;
+
+    public MappedJournal(Path directory, int payloadSize, int segmentSizeBytes) {
+        if (payloadSize % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("Payload size must be a multiple of 4 bytes");
+        }
+        this.directory = directory;
+        this.payloadSize = payloadSize;
+        this.recordSize = HEADER_BYTES + payloadSize + CHECKSUM_BYTES;
+        this.recordsPerSegment = segmentSizeBytes / recordSize;
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Segment size is smaller than one record");
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                openSegment(0);
+            } else {
+                Path last = segments.get(segments.size() - 1);
+                openSegment(numberOf(last));
+                position = recoverWritePosition();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+    }
+
+    public synchronized void append(PayloadWriter writer) {
+        if (position + recordSize > recordsPerSegment * recordSize) {
+            segment.force();
+            openSegment(segmentNumber + 1);
+        }
+        int offset = position;
+        writer.write(segment, offset + HEADER_BYTES);
+        segment.putInt(offset + HEADER_BYTES + payloadSize, checksum(segment, offset + HEADER_BYTES));
+        segment.putInt(offset, payloadSize);
+        position += recordSize;
+    }
+
+    /**
+     * Calls the reader for every record, oldest first, and returns how many were read.
+     */
+    public long replay(PayloadReader reader) {
+        long records = 0;
+        try {
+            for (Path path : segments()) {
+                MappedByteBuffer buffer = map(path, FileChannel.MapMode.READ_ONLY);
+                for (int offset = 0; offset + recordSize <= buffer.capacity(); offset += recordSize) {
+                    if (!isValid(buffer, offset)) {
+                        break;
+                    }
+                    reader.read(buffer, offset + HEADER_BYTES);
+                    records++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay journal in " + directory, e);
+        }
+        return records;
+    }
+
+    public synchronized boolean isEmpty() {
+        return segmentNumber == 0 && position == 0;
+    }
+
+    public synchronized void force() {
+        segment.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        segment.force();
+    }
+
+    private int recoverWritePosition() {
+        // Records are written in order, so the filled slots form a prefix of the segment
+        int low = 0;
+        int high = recordsPerSegment;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (segment.getInt(mid * recordSize) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // Drop a torn record left by a crash in the middle of an append
+        while (low > 0 && !isValid(segment, (low - 1) * recordSize)) {
+            low--;
+            segment.putInt(low * recordSize, 0);
+        }
+        return low * recordSize;
+    }
+
+    private boolean isValid(MappedByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) == payloadSize
+                && buffer.getInt(offset + HEADER_BYTES + payloadSize) == checksum(buffer, offset + HEADER_BYTES);
+    }
+
+    private int checksum(MappedByteBuffer buffer, int payloadOffset) {
+        int hash = 0x9E3779B9;
+        for (int i = 0; i < payloadSize; i += Integer.BYTES) {
+            hash = (hash ^ buffer.getInt(payloadOffset + i)) * 0x01000193;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private void openSegment(long number) {
+        try {
+            segmentNumber = number;
+            segment = map(directory.resolve(String.format("%020d%s", number, SUFFIX)), FileChannel.MapMode.READ_WRITE);
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal segment " + number + " in " + directory, e);
+        }
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long size = mode == FileChannel.MapMode.READ_ONLY ? channel.size() : (long) recordsPerSegment * recordSize;
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long numberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,109 @@
+package org.sigar.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Points (time, value) sorted by time in two parallel primitive arrays, 16 bytes a point without any boxing.
+ * Appending in time order is amortised O(1), a point older than the last one is inserted in place and a point
+ * at an existing time replaces its value. Not thread-safe.
+ */
+public class TimeSeries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] times = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+
+    public void put(long time, double value) {
+        if (size == 0 || time > times[size - 1]) {
+            insertAt(size, time, value);
+            return;
+        }
+        int index = Arrays.binarySearch(times, 0, size, time);
+        if (index >= 0) {
+            values[index] = value;
+        } else {
+            insertAt(-index - 1, time, value);
+        }
+    }
+
+    // Index of the last point at or before the time, -1 when there is none
+    public int floorIndex(long time) {
+        int index = Arrays.binarySearch(times, 0, size, time);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // Index of the first point at or after the time, size() when there is none
+    public int ceilingIndex(long time) {
+        int index = Arrays.binarySearch(times, 0, size, time);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public long timeAt(int index) {
+        return times[index];
+    }
+
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves the points before the cutoff into the target, keeping only the last point of each bucket there.
+     * The times of the points that are left out, including points of the target replaced by a later one in the
+     * same bucket, go to the dropped consumer.
+     */
+    public void downsampleInto(TimeSeries target, long cutoff, LongUnaryOperator bucketOf, LongConsumer dropped) {
+        int moved = ceilingIndex(cutoff);
+        for (int i = 0; i < moved; i++) {
+            if (i + 1 < moved && bucketOf.applyAsLong(times[i]) == bucketOf.applyAsLong(times[i + 1])) {
+                dropped.accept(times[i]);
+            } else {
+                target.putLastOfBucket(times[i], values[i], bucketOf, dropped);
+            }
+        }
+        System.arraycopy(times, moved, times, 0, size - moved);
+        System.arraycopy(values, moved, values, 0, size - moved);
+        size -= moved;
+        // Give the memory back once most of the series has moved on
+        if (times.length > INITIAL_CAPACITY && size < times.length / 4) {
+            times = Arrays.copyOf(times, Math.max(INITIAL_CAPACITY, size * 2));
+            values = Arrays.copyOf(values, times.length);
+        }
+    }
+
+    private void putLastOfBucket(long time, double value, LongUnaryOperator bucketOf, LongConsumer dropped) {
+        long bucket = bucketOf.applyAsLong(time);
+        int previous = floorIndex(time);
+        if (previous >= 0 && times[previous] == time) {
+            values[previous] = value;
+        } else if (previous >= 0 && bucketOf.applyAsLong(times[previous]) == bucket) {
+            // Same bucket, earlier point: replacing it in place keeps the order
+            dropped.accept(times[previous]);
+            times[previous] = time;
+            values[previous] = value;
+        } else if (previous + 1 < size && bucketOf.applyAsLong(times[previous + 1]) == bucket) {
+            dropped.accept(time);
+        } else {
+            insertAt(previous + 1, time, value);
+        }
+    }
+
+    private void insertAt(int index, long time, double value) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(times, index, times, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        times[index] = time;
+        values[index] = value;
+        size++;
+    }
+}
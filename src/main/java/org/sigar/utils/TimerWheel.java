@@ -0,0 +1,150 @@
+package org.sigar.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timer wheel keyed on an abstract tick (the overdue scheduler uses epoch days).
+ * Scheduling and cancelling are O(1); advancing only touches the slots the clock passes over,
+ * so the work is proportional to the timers that actually expire, not to the number scheduled.
+ * Not thread safe, callers synchronize.
+ */
+public class TimerWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final List<List<Set<K>>> wheels = new ArrayList<>(LEVELS);
+    // Deadlines beyond the top level, re-inserted every time the top level wraps around
+    private final Set<K> overflow = new LinkedHashSet<>();
+    // Deadlines at or before the current tick, handed out on the next advance
+    private final Set<K> pending = new LinkedHashSet<>();
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimerWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    public void schedule(K key, long deadline) {
+        cancel(key);
+        Timer<K> timer = new Timer<>(key, deadline);
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    public boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(key);
+        return true;
+    }
+
+    /**
+     * Moves the clock forward and returns the keys whose deadline has been reached, earliest tick first.
+     */
+    public List<K> advanceTo(long tick) {
+        List<K> expired = new ArrayList<>(drain(pending));
+        while (currentTick < tick) {
+            if (timers.isEmpty()) {
+                currentTick = tick;
+                break;
+            }
+            currentTick++;
+            if ((currentTick & ((1L << (LEVELS * SLOT_BITS)) - 1)) == 0) {
+                reinsert(overflow);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                    reinsert(wheels.get(level).get(slotIndex(currentTick, level)));
+                }
+            }
+            expired.addAll(drain(wheels.get(0).get(slotIndex(currentTick, 0))));
+            // A cascaded timer due exactly now lands in pending
+            expired.addAll(drain(pending));
+        }
+        return expired;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public Long deadlineOf(K key) {
+        Timer<K> timer = timers.get(key);
+        return timer != null ? timer.deadline : null;
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    private void place(Timer<K> timer) {
+        if (timer.deadline <= currentTick) {
+            timer.slot = pending;
+        } else {
+            timer.slot = overflow;
+            for (int level = 0; level < LEVELS; level++) {
+                // The deadline belongs to this level when it shares all higher-level digits with the clock
+                int shift = (level + 1) * SLOT_BITS;
+                if ((timer.deadline >> shift) == (currentTick >> shift)) {
+                    timer.slot = wheels.get(level).get(slotIndex(timer.deadline, level));
+                    break;
+                }
+            }
+        }
+        timer.slot.add(timer.key);
+    }
+
+    private void reinsert(Set<K> slot) {
+        for (K key : drainKeys(slot)) {
+            place(timers.get(key));
+        }
+    }
+
+    private List<K> drain(Set<K> slot) {
+        List<K> keys = drainKeys(slot);
+        keys.forEach(timers::remove);
+        return keys;
+    }
+
+    private List<K> drainKeys(Set<K> slot) {
+        List<K> keys = new ArrayList<>(slot);
+        slot.clear();
+        return keys;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >> (level * SLOT_BITS)) & MASK);
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private final long deadline;
+        private Set<K> slot;
+
+        private Timer(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.sigar.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count the bucket keeps the single instant at which it will be
+ * full again, so taking tokens is one compare-and-set on an {@link AtomicLong} and refilling needs no timer.
+ * All times are {@link System#nanoTime()} values passed in by the caller.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and capacity");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000d / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes the tokens if they are all available and returns 0, otherwise takes nothing and returns
+     * how many nanoseconds to wait before they will be. More tokens than the capacity are never available,
+     * such a request is always refused.
+     */
+    public long tryAcquire(int tokens, long nowNanos) {
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + cost;
+            long overdraft = next - nowNanos - capacityNanos;
+            if (overdraft > 0) {
+                return overdraft;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Gives back tokens taken by a request that was rejected further down the line
+    public void refund(int tokens, long nowNanos) {
+        long cost = nanosPerToken * tokens;
+        fullAt.accumulateAndGet(nowNanos, (current, now) -> Math.max(now, current - cost));
+    }
+
+    public double availableTokens(long nowNanos) {
+        long missing = Math.max(0, fullAt.get() - nowNanos);
+        return capacity - (double) missing / nanosPerToken;
+    }
+
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
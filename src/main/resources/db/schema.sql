@@ -0,0 +1,178 @@
+-- Schema of one property database, generated from the entities with Hibernate's schema export
+-- (jakarta.persistence.schema-generation.scripts.action=create) and made re-runnable.
+-- The prod profile applies it on startup and then only validates, so regenerate it whenever an entity changes.
+
+create table if not exists guest (
+    age integer,
+    date_of_occupancy date,
+    guest_id bigint generated by default as identity,
+    room_id bigint,
+    phone_number varchar(20),
+    property_id varchar(32),
+    name varchar(255),
+    primary key (guest_id)
+);
+
+create table if not exists guest_stay_archive (
+    check_in date not null,
+    check_out date,
+    room_number integer,
+    guest_id bigint,
+    guest_stay_id bigint not null,
+    room_id bigint,
+    property_id varchar(32),
+    guest_name varchar(255),
+    primary key (guest_stay_id)
+);
+
+create table if not exists guest_stay (
+    check_in date not null,
+    check_out date,
+    room_number integer,
+    guest_id bigint,
+    guest_stay_id bigint generated by default as identity,
+    room_id bigint,
+    property_id varchar(32),
+    guest_name varchar(255),
+    primary key (guest_stay_id)
+);
+
+create table if not exists meter_reading (
+    reading float(53) not null,
+    read_at timestamp(6) not null,
+    room_id bigint not null,
+    meter_type varchar(20) not null check (meter_type in ('ELECTRICITY','WATER')),
+    property_id varchar(32),
+    primary key (read_at, room_id, meter_type)
+);
+
+create table if not exists outbox_event (
+    attempts integer not null,
+    aggregate_id bigint,
+    created_at timestamp(6),
+    next_attempt_at timestamp(6),
+    outbox_event_id bigint generated by default as identity,
+    parked_at timestamp(6),
+    published_at timestamp(6),
+    property_id varchar(32),
+    aggregate_type varchar(40),
+    event_type varchar(40) check (event_type in ('GUEST_CHECKED_IN','GUEST_CHECKED_OUT','RENTAL_CONTRACT_CREATED','PAYMENT_RECORDED')),
+    last_error varchar(500),
+    payload varchar(4000),
+    primary key (outbox_event_id)
+);
+
+-- Added after the first release, for outbox tables created before
+alter table outbox_event add column if not exists next_attempt_at timestamp(6);
+alter table outbox_event add column if not exists parked_at timestamp(6);
+
+create table if not exists payment_transaction_archive (
+    amount integer,
+    room_number integer,
+    transaction_date date,
+    guest_id bigint,
+    rental_contract_id bigint,
+    room_id bigint,
+    transaction_id bigint not null,
+    property_id varchar(32),
+    guest_name varchar(255),
+    notes varchar(255),
+    transaction_type varchar(255) check (transaction_type in ('RENT_PAYMENT','ADVANCE','SECURITY_DEPOSIT','ELECTRICITY','MAINTENANCE','WATER','MISCELLANEOUS')),
+    primary key (transaction_id)
+);
+
+create table if not exists payment_transaction (
+    amount integer,
+    transaction_date date,
+    guest_id bigint,
+    rental_contract_id bigint,
+    room_id bigint,
+    transaction_id bigint generated by default as identity,
+    property_id varchar(32),
+    notes varchar(255),
+    transaction_type varchar(255) check (transaction_type in ('RENT_PAYMENT','ADVANCE','SECURITY_DEPOSIT','ELECTRICITY','MAINTENANCE','WATER','MISCELLANEOUS')),
+    primary key (transaction_id)
+);
+
+create table if not exists rental_contract (
+    advance_amount_paid integer,
+    monthly_rent_amount float(53),
+    rent_due_date date,
+    room_number integer,
+    guest_id bigint unique,
+    rental_contract_id bigint generated by default as identity,
+    room_id bigint unique,
+    property_id varchar(32),
+    guest_name varchar(255),
+    primary key (rental_contract_id)
+);
+
+create table if not exists room (
+    floor integer not null,
+    has_kitchen boolean not null,
+    hasac boolean not null,
+    is_available boolean not null,
+    rent integer,
+    room_number integer not null,
+    room_id bigint generated by default as identity,
+    property_id varchar(32),
+    beds varchar(255) check (beds in ('SINGLE','DOUBLE','TRIPLE','FOUR')),
+    primary key (room_id)
+);
+
+create index if not exists idx_guest_stay_guest_check_out
+   on guest_stay (guest_id, check_out);
+
+create index if not exists idx_guest_stay_room_check_in
+   on guest_stay (room_id, check_in);
+
+create index if not exists idx_guest_stay_check_out
+   on guest_stay (check_out, guest_stay_id);
+
+create index if not exists idx_outbox_event_unpublished
+   on outbox_event (published_at, outbox_event_id);
+
+create index if not exists idx_outbox_event_aggregate
+   on outbox_event (aggregate_type, aggregate_id);
+
+create index if not exists idx_payment_transaction_archive_contract_date
+   on payment_transaction_archive (rental_contract_id, transaction_date, transaction_id);
+
+create index if not exists idx_payment_transaction_contract_date
+   on payment_transaction (rental_contract_id, transaction_date, transaction_id);
+
+create index if not exists idx_payment_transaction_date
+   on payment_transaction (transaction_date, transaction_id);
+
+create index if not exists idx_rental_contract_rent_due_date
+   on rental_contract (rent_due_date);
+
+alter table guest
+   add constraint if not exists FKjodw45n0ji6awsac21kl6g28x
+   foreign key (room_id)
+   references room;
+
+alter table payment_transaction
+   add constraint if not exists FKll6wkpkej6tk3y5of0r7b0cp7
+   foreign key (guest_id)
+   references guest;
+
+alter table payment_transaction
+   add constraint if not exists FKjopyq7l1kqkaatkxetvsrpyq8
+   foreign key (rental_contract_id)
+   references rental_contract;
+
+alter table payment_transaction
+   add constraint if not exists FK96g9n3ml4iw3erae73ll0drty
+   foreign key (room_id)
+   references room;
+
+alter table rental_contract
+   add constraint if not exists FK4huhq1fdvhm6k77dffkybwchp
+   foreign key (guest_id)
+   references guest;
+
+alter table rental_contract
+   add constraint if not exists FKb3o80tk7oweuokxsssyvw5kym
+   foreign key (room_id)
+   references room;
@@ -0,0 +1,28 @@
+package org.sigar.load;
+
+// Everything is read from system properties, e.g. mvn test -Pload-test -Dpg2.load.rate=500 -Dpg2.load.duration-seconds=120
+public record LoadTestSettings(
+        int rooms,
+        int guests,
+        int contracts,
+        int scratchFloors,
+        double requestsPerSecond,
+        int warmupSeconds,
+        int durationSeconds,
+        int clients,
+        long seed
+) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("pg2.load.rooms", 200),
+                Integer.getInteger("pg2.load.guests", 400),
+                Integer.getInteger("pg2.load.contracts", 200),
+                Integer.getInteger("pg2.load.scratch-floors", 10),
+                Double.parseDouble(System.getProperty("pg2.load.rate", "200")),
+                Integer.getInteger("pg2.load.warmup-seconds", 5),
+                Integer.getInteger("pg2.load.duration-seconds", 30),
+                Integer.getInteger("pg2.load.clients", 50),
+                Long.getLong("pg2.load.seed", 42L));
+    }
+}
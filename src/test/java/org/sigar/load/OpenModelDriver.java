@@ -0,0 +1,242 @@
+package org.sigar.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Open-model load generator: requests arrive as a Poisson process at a fixed rate whether or not earlier ones
+ * have finished, like real clients do. Latency is measured from the instant a request was due, not from when
+ * it was actually sent, so a stalled server shows up in the percentiles instead of silently lowering the load.
+ */
+public class OpenModelDriver {
+
+    private static final long MAX_TRACKED_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    /**
+     * One kind of request in the mix. The factory returns null when there is nothing to act on (for example no
+     * guest left to delete), the arrival is then counted as skipped.
+     */
+    public record Operation(String name, int weight, Function<Random, HttpRequest> factory, Consumer<String> onSuccess) {
+
+        public Operation(String name, int weight, Function<Random, HttpRequest> factory) {
+            this(name, weight, factory, body -> { });
+        }
+    }
+
+    public static final class EndpointStats {
+        private final Histogram latencyMicros = new ConcurrentHistogram(MAX_TRACKED_MICROS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder transportErrors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private volatile String firstServerError;
+
+        public long completed() {
+            return latencyMicros.getTotalCount();
+        }
+    }
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int clients;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public OpenModelDriver(List<Operation> operations, int clients) {
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.clients = clients;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        operations.forEach(operation -> stats.put(operation.name(), new EndpointStats()));
+    }
+
+    /**
+     * Runs the warmup (not recorded) and then the measured phase, and waits for requests still in flight.
+     */
+    public void run(double requestsPerSecond, Duration warmup, Duration measured, Random random) {
+        drive(requestsPerSecond, warmup, random, false);
+        drive(requestsPerSecond, measured, random, true);
+        executor.shutdown();
+    }
+
+    public Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+
+    private void drive(double requestsPerSecond, Duration duration, Random random, boolean record) {
+        double meanGapNanos = 1_000_000_000d / requestsPerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long due = start;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        while (true) {
+            // Exponential gaps between arrivals give a Poisson process
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random);
+            EndpointStats endpointStats = stats.get(operation.name());
+            HttpRequest request = operation.factory().apply(random);
+            if (request == null) {
+                endpointStats.skipped.increment();
+                continue;
+            }
+            request = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("X-Forwarded-For", clientAddress(random.nextInt(clients)))
+                    .build();
+            long dueAt = due;
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> complete(operation, endpointStats, dueAt, response, failure, record)));
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null)
+                .join();
+    }
+
+    private void complete(Operation operation, EndpointStats endpointStats, long dueAt,
+                          HttpResponse<String> response, Throwable failure, boolean record) {
+        long latencyMicros = Math.min(MAX_TRACKED_MICROS, (System.nanoTime() - dueAt) / 1_000);
+        if (failure != null) {
+            // Timeouts are the slowest requests of all, leaving them out would flatter the percentiles
+            if (record) {
+                endpointStats.latencyMicros.recordValue(latencyMicros);
+                endpointStats.transportErrors.increment();
+            }
+            return;
+        }
+        int status = response.statusCode();
+        if (status < 400) {
+            operation.onSuccess().accept(response.body());
+        }
+        if (!record) {
+            return;
+        }
+        endpointStats.latencyMicros.recordValue(latencyMicros);
+        if (status == 429) {
+            endpointStats.rejected.increment();
+        } else if (status >= 500) {
+            if (endpointStats.firstServerError == null) {
+                endpointStats.firstServerError = status + " " + response.body();
+            }
+            endpointStats.serverErrors.increment();
+        } else if (status >= 400) {
+            endpointStats.clientErrors.increment();
+        } else {
+            endpointStats.ok.increment();
+        }
+    }
+
+    private Operation pick(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    /**
+     * Prints one line per endpoint and writes each endpoint's full percentile distribution as an .hgrm file,
+     * which can be plotted with the HdrHistogram plotter.
+     */
+    public void report(Duration measured, PrintStream out, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        double seconds = measured.toMillis() / 1000d;
+        String header = String.format(Locale.ROOT, "%-48s %8s %8s %6s %6s %6s %6s %6s %9s %9s %9s %9s %9s",
+                "endpoint", "count", "req/s", "2xx", "4xx", "429", "5xx", "io", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        List<String> lines = new ArrayList<>(List.of(header));
+        Histogram total = new Histogram(MAX_TRACKED_MICROS, 3);
+        stats.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.latencyMicros;
+            total.add(histogram);
+            lines.add(line(entry.getKey(), histogram, seconds, endpointStats));
+            writeDistribution(directory.resolve(fileNameOf(entry.getKey())), histogram);
+        });
+        EndpointStats all = new EndpointStats();
+        stats.values().forEach(endpointStats -> {
+            all.ok.add(endpointStats.ok.sum());
+            all.clientErrors.add(endpointStats.clientErrors.sum());
+            all.rejected.add(endpointStats.rejected.sum());
+            all.serverErrors.add(endpointStats.serverErrors.sum());
+            all.transportErrors.add(endpointStats.transportErrors.sum());
+        });
+        lines.add(line("ALL", total, seconds, all));
+        stats.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .filter(entry -> entry.getValue().firstServerError != null)
+                .forEach(entry -> lines.add("First server error of " + entry.getKey() + ": " + entry.getValue().firstServerError));
+        writeDistribution(directory.resolve("all.hgrm"), total);
+        Files.write(directory.resolve("report.txt"), lines);
+        lines.forEach(out::println);
+    }
+
+    private static String line(String name, Histogram histogram, double seconds, EndpointStats endpointStats) {
+        return String.format(Locale.ROOT, "%-48s %8d %8.1f %6d %6d %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                endpointStats.ok.sum(), endpointStats.clientErrors.sum(), endpointStats.rejected.sum(),
+                endpointStats.serverErrors.sum(), endpointStats.transportErrors.sum(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write " + file, e);
+        }
+    }
+
+    private static String fileNameOf(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+    }
+
+    // One documentation-range address per simulated client
+    private static String clientAddress(int client) {
+        return "198.18." + (client / 256) + "." + (client % 256);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000d;
+    }
+}
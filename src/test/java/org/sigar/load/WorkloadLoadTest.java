@@ -0,0 +1,239 @@
+package org.sigar.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.sigar.service.GuestService;
+import org.sigar.service.PaymentService;
+import org.sigar.service.RoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a scripted mix over every /api/PG2/** endpoint against the app on an in-memory H2 database.
+ * Skipped unless run with the load-test profile: mvn test -Pload-test [-Dpg2.load.rate=...]
+ * The report ends up in target/load-test.
+ */
+@EnabledIfSystemProperty(named = "pg2.load-test", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/load-test/journal",
+        // The driver spreads its requests over many client addresses through X-Forwarded-For
+        "pg2.admission.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1",
+        "logging.level.org.sigar=WARN"
+})
+public class WorkloadLoadTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    private final List<Long> roomIds = new CopyOnWriteArrayList<>();
+    private final List<Long> contractIds = new CopyOnWriteArrayList<>();
+    private final Queue<Long> disposableGuestIds = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> disposableRoomIds = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> guestFloors = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> roomFloors = new ConcurrentLinkedQueue<>();
+
+    @Test
+    public void runWorkloadMix() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Random random = new Random(settings.seed());
+
+        long seedStart = System.nanoTime();
+        WorkloadSeeder.SeededData seeded = new WorkloadSeeder(roomService, guestService, paymentService).seed(settings, random);
+        System.out.printf("Seeded %d rooms, %d guests, %d contracts in %d ms%n", seeded.roomIds().size(),
+                seeded.guestIds().size(), seeded.contractIds().size(), (System.nanoTime() - seedStart) / 1_000_000);
+        roomIds.addAll(seeded.roomIds());
+        contractIds.addAll(seeded.contractIds());
+        // Half of the scratch floors are checked out, the other half deleted
+        for (int i = 0; i < seeded.scratchFloors().size(); i++) {
+            (i % 2 == 0 ? guestFloors : roomFloors).add(seeded.scratchFloors().get(i));
+        }
+
+        OpenModelDriver driver = new OpenModelDriver(mix(), settings.clients());
+        Duration measured = Duration.ofSeconds(settings.durationSeconds());
+        driver.run(settings.requestsPerSecond(), Duration.ofSeconds(settings.warmupSeconds()), measured, random);
+        driver.report(measured, System.out, Path.of("target", "load-test"));
+
+        // Latency, shedding and errors are for the reader of the report, the run only fails when nothing got through
+        long completed = driver.getStats().values().stream().mapToLong(OpenModelDriver.EndpointStats::completed).sum();
+        assertTrue(completed > 0, "No request completed");
+    }
+
+    // Mostly room and guest reads, then payments and check-ins, with a trickle of reports and bulk writes
+    private List<OpenModelDriver.Operation> mix() {
+        List<OpenModelDriver.Operation> mix = new ArrayList<>();
+        mix.add(new OpenModelDriver.Operation("GET /rooms", 20, random -> get("/rooms")));
+        mix.add(new OpenModelDriver.Operation("GET /guests", 10, random -> get("/guests")));
+        mix.add(new OpenModelDriver.Operation("GET /guests/age", 5, random -> {
+            int startAge = 18 + random.nextInt(30);
+            return get("/guests/age?startAge=" + startAge + "&endAge=" + (startAge + 10));
+        }));
+        mix.add(new OpenModelDriver.Operation("GET /guests/occupancy", 5, random -> {
+            LocalDate start = LocalDate.now().minusDays(random.nextInt(365));
+            return get("/guests/occupancy?startDate=" + start + "&endDate=" + start.plusDays(30));
+        }));
+        mix.add(new OpenModelDriver.Operation("GET /occupancy", 4, random -> get("/occupancy")));
+        mix.add(new OpenModelDriver.Operation("GET /stays", 3,
+                random -> get("/stays?date=" + LocalDate.now().minusDays(random.nextInt(90)))));
+        mix.add(new OpenModelDriver.Operation("GET /stays/occupancy", 1, random -> {
+            LocalDate from = LocalDate.now().minusDays(random.nextInt(365));
+            return get("/stays/occupancy?from=" + from + "&to=" + from.plusDays(90));
+        }));
+        mix.add(new OpenModelDriver.Operation("GET /statements", 1, random -> get("/statements")));
+        mix.add(new OpenModelDriver.Operation("GET /archive", 1, random -> get("/archive")));
+        mix.add(new OpenModelDriver.Operation("GET /meters/stats", 1, random -> get("/meters/stats")));
+        mix.add(new OpenModelDriver.Operation("GET /profiler/sql", 1, random -> get("/profiler/sql")));
+        mix.add(new OpenModelDriver.Operation("GET /payment/rentalContract/{id}/transactions", 8,
+                random -> get("/payment/rentalContract/" + any(contractIds, random) + "/transactions?size=20")));
+        mix.add(new OpenModelDriver.Operation("GET /payment/rentalContract/overdue", 3, random -> get("/payment/rentalContract/overdue")));
+        mix.add(new OpenModelDriver.Operation("GET /payment/journal/balances", 1, random -> get("/payment/journal/balances")));
+        mix.add(new OpenModelDriver.Operation("GET /payment/journal/verify", 1, random -> get("/payment/journal/verify")));
+        mix.add(new OpenModelDriver.Operation("GET /reports/properties", 1, random -> get("/reports/properties")));
+        mix.add(new OpenModelDriver.Operation("GET /reports/property-ids", 1, random -> get("/reports/property-ids")));
+        mix.add(new OpenModelDriver.Operation("GET /outbox/metrics", 1, random -> get("/outbox/metrics")));
+        mix.add(new OpenModelDriver.Operation("GET /admission/metrics", 1, random -> get("/admission/metrics")));
+        mix.add(new OpenModelDriver.Operation("GET /coalescing/metrics", 1, random -> get("/coalescing/metrics")));
+
+        mix.add(new OpenModelDriver.Operation("POST /payment/transaction", 12, random -> post("/payment/transaction",
+                "{\"rentalContract\":{\"id\":" + any(contractIds, random) + "},\"amount\":" + (100 + random.nextInt(5000))
+                        + ",\"transactionType\":\"" + (random.nextInt(4) == 0 ? "RENT_PAYMENT" : "ELECTRICITY") + "\"}")));
+        mix.add(new OpenModelDriver.Operation("POST /meters/readings", 6, random -> post("/meters/readings",
+                meterReadingsJson(random))));
+        mix.add(new OpenModelDriver.Operation("POST /rooms/{roomId}/guests", 8,
+                random -> post("/rooms/" + any(roomIds, random) + "/guests", guestJson(random))));
+        mix.add(new OpenModelDriver.Operation("POST /batch", 2, random -> post("/batch",
+                "{\"operations\":[{\"referenceId\":\"guest\",\"method\":\"POST\",\"path\":\"/guests\",\"body\":" + guestJson(random) + "},"
+                        + "{\"method\":\"POST\",\"path\":\"/rooms/" + any(roomIds, random) + "/guests\",\"body\":{\"guestId\":\"$ref:guest\"}},"
+                        + "{\"method\":\"POST\",\"path\":\"/payment/transaction\",\"body\":{\"rentalContract\":{\"id\":"
+                        + any(contractIds, random) + "},\"amount\":5000,\"transactionType\":\"ADVANCE\"}}]}")));
+        mix.add(new OpenModelDriver.Operation("POST /guests", 5, random -> post("/guests", guestJson(random)),
+                collect("guestId", disposableGuestIds)));
+        mix.add(new OpenModelDriver.Operation("POST /rooms/allocation", 3, random -> post("/rooms/allocation",
+                "{\"groupSize\":" + (1 + random.nextInt(6)) + ",\"sameFloor\":" + random.nextBoolean() + "}")));
+        mix.add(new OpenModelDriver.Operation("POST /payment/rentalContract", 2, random -> post("/payment/rentalContract",
+                "{\"roomNumber\":" + (100 + random.nextInt(100)) + ",\"guestName\":\"Load\",\"monthlyRentAmount\":5000,"
+                        + "\"rentDueDate\":\"" + LocalDate.now().plusDays(random.nextInt(30)) + "\"}"),
+                collect("id", contractIds)));
+        mix.add(new OpenModelDriver.Operation("POST /rooms", 2, random -> post("/rooms",
+                "{\"roomNumber\":" + (900 + random.nextInt(100)) + ",\"floor\":" + (1 + random.nextInt(WorkloadSeeder.REGULAR_FLOORS))
+                        + ",\"isAvailable\":true,\"rent\":4000,\"beds\":\"DOUBLE\"}"),
+                collect("roomId", disposableRoomIds)));
+        mix.add(new OpenModelDriver.Operation("DELETE /guests/{guestId}", 2, random -> {
+            Long guestId = disposableGuestIds.poll();
+            return guestId == null ? null : delete("/guests/" + guestId);
+        }));
+        mix.add(new OpenModelDriver.Operation("POST /guests/checkout", 1, random -> {
+            List<Long> guestIds = drain(disposableGuestIds, 5);
+            return guestIds.isEmpty() ? null : post("/guests/checkout", guestIds.toString());
+        }));
+        mix.add(new OpenModelDriver.Operation("DELETE /rooms/{roomId}", 1, random -> {
+            Long roomId = disposableRoomIds.poll();
+            return roomId == null ? null : delete("/rooms/" + roomId);
+        }));
+        mix.add(new OpenModelDriver.Operation("POST /rooms/bulk-delete", 1, random -> {
+            List<Long> ids = drain(disposableRoomIds, 5);
+            return ids.isEmpty() ? null : post("/rooms/bulk-delete", ids.toString());
+        }));
+        mix.add(new OpenModelDriver.Operation("DELETE /guests/floor/{floor}", 1, random -> {
+            Integer floor = guestFloors.poll();
+            return floor == null ? null : delete("/guests/floor/" + floor);
+        }));
+        mix.add(new OpenModelDriver.Operation("DELETE /rooms/floor/{floor}", 1, random -> {
+            Integer floor = roomFloors.poll();
+            return floor == null ? null : delete("/rooms/floor/" + floor);
+        }));
+        return mix;
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest delete(String path) {
+        return request(path).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/PG2" + path))
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static String guestJson(Random random) {
+        return "{\"name\":\"Load guest\",\"age\":" + (18 + random.nextInt(50)) + ",\"phoneNumber\":\"9800000000\","
+                + "\"dateOfOccupancy\":\"" + LocalDate.now().minusDays(random.nextInt(365)) + "\"}";
+    }
+
+    // A batch of 20 cumulative readings, the register value grows with the time of the reading
+    private String meterReadingsJson(Random random) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<String> readings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime readAt = now.minusMinutes(random.nextInt(60 * 24));
+            readings.add("{\"roomId\":" + any(roomIds, random) + ",\"meterType\":\"" + (random.nextBoolean() ? "ELECTRICITY" : "WATER")
+                    + "\",\"readAt\":\"" + readAt + "\",\"reading\":" + readAt.toEpochSecond(ZoneOffset.UTC) / 600 + "}");
+        }
+        return readings.toString();
+    }
+
+    private static <T> T any(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static <T> List<T> drain(Queue<T> queue, int max) {
+        List<T> drained = new ArrayList<>();
+        T value;
+        while (drained.size() < max && (value = queue.poll()) != null) {
+            drained.add(value);
+        }
+        return drained;
+    }
+
+    private static Consumer<String> collect(String field, java.util.Collection<Long> target) {
+        return body -> {
+            try {
+                JsonNode id = objectMapper.readTree(body).get(field);
+                if (id != null && id.canConvertToLong()) {
+                    target.add(id.asLong());
+                }
+            } catch (Exception ignored) {
+                // Responses that are not JSON simply do not feed the follow-up operations
+            }
+        };
+    }
+}
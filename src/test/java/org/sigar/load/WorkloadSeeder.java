@@ -0,0 +1,99 @@
+package org.sigar.load;
+
+import org.sigar.Constants.enums.Beds;
+import org.sigar.model.Guest;
+import org.sigar.model.RentalContract;
+import org.sigar.model.Room;
+import org.sigar.service.GuestService;
+import org.sigar.service.PaymentService;
+import org.sigar.service.RoomService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the default property through the services, so listeners, the outbox and the payment journal see the
+ * same writes they would in production. Rooms on the scratch floors (above the regular ones) are only there
+ * to be removed by the floor checkout and floor delete operations of the mix.
+ */
+public class WorkloadSeeder {
+
+    public static final int REGULAR_FLOORS = 10;
+
+    public record SeededData(List<Long> roomIds, List<Long> guestIds, List<Long> contractIds, List<Integer> scratchFloors) {
+    }
+
+    private final RoomService roomService;
+    private final GuestService guestService;
+    private final PaymentService paymentService;
+
+    public WorkloadSeeder(RoomService roomService, GuestService guestService, PaymentService paymentService) {
+        this.roomService = roomService;
+        this.guestService = guestService;
+        this.paymentService = paymentService;
+    }
+
+    public SeededData seed(LoadTestSettings settings, Random random) {
+        List<Long> roomIds = new ArrayList<>();
+        for (int i = 0; i < settings.rooms(); i++) {
+            roomIds.add(roomService.addRoom(randomRoom(random, 1 + i % REGULAR_FLOORS, 100 + i)).getRoomId());
+        }
+        List<Long> guestIds = new ArrayList<>();
+        for (int i = 0; i < settings.guests(); i++) {
+            Guest guest = randomGuest(random, i);
+            // Two thirds of the guests live in a room, the rest are registered only
+            if (i % 3 != 2 && !roomIds.isEmpty()) {
+                Long roomId = roomIds.get(random.nextInt(roomIds.size()));
+                roomService.addGuestToRoom(roomId, guest);
+                if (guest.getGuestId() != 0) {
+                    guestIds.add(guest.getGuestId());
+                }
+            } else {
+                guestIds.add(guestService.addGuest(guest).getGuestId());
+            }
+        }
+        List<Long> contractIds = new ArrayList<>();
+        for (int i = 0; i < settings.contracts(); i++) {
+            RentalContract contract = new RentalContract();
+            contract.setRoomNumber(100 + random.nextInt(Math.max(1, settings.rooms())));
+            contract.setGuestName("Guest " + i);
+            contract.setMonthlyRentAmount(4000d + random.nextInt(8) * 500);
+            contract.setAdvanceAmountPaid(10000);
+            contract.setRentDueDate(LocalDate.now().plusDays(random.nextInt(60) - 15));
+            contractIds.add(paymentService.addRentalContract(contract).id());
+        }
+        List<Integer> scratchFloors = new ArrayList<>();
+        for (int f = 0; f < settings.scratchFloors(); f++) {
+            int floor = REGULAR_FLOORS + 1 + f;
+            for (int r = 0; r < 4; r++) {
+                Room room = roomService.addRoom(randomRoom(random, floor, floor * 100 + r));
+                roomService.addGuestToRoom(room.getRoomId(), randomGuest(random, floor * 100 + r));
+            }
+            scratchFloors.add(floor);
+        }
+        return new SeededData(roomIds, guestIds, contractIds, scratchFloors);
+    }
+
+    static Room randomRoom(Random random, int floor, int roomNumber) {
+        Room room = new Room();
+        room.setFloor(floor);
+        room.setRoomNumber(roomNumber);
+        room.setHasAC(random.nextBoolean());
+        room.setHasKitchen(random.nextInt(4) == 0);
+        room.setAvailable(true);
+        room.setBeds(Beds.values()[random.nextInt(Beds.values().length)]);
+        room.setRent(3000 + random.nextInt(10) * 500);
+        return room;
+    }
+
+    static Guest randomGuest(Random random, int index) {
+        Guest guest = new Guest();
+        guest.setName("Guest " + index);
+        guest.setAge(18 + random.nextInt(50));
+        guest.setPhoneNumber(String.format("98%08d", random.nextInt(100_000_000)));
+        guest.setDateOfOccupancy(LocalDate.now().minusDays(random.nextInt(365)));
+        return guest;
+    }
+}
@@ -0,0 +1,113 @@
+package org.sigar.unit.configs;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.configs.AdmissionInterceptor;
+import org.sigar.configs.AdmissionProperties;
+import org.sigar.service.AdmissionControlService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionInterceptorTest {
+
+    private static final String PROXY = "10.0.0.2";
+
+    private final AdmissionControlService admissionControlService;
+    private final AdmissionInterceptor interceptor;
+    private final HandlerMethod handler;
+
+    public AdmissionInterceptorTest() throws NoSuchMethodException {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setClientWrites(new AdmissionProperties.Limit(0.001, 2));
+        properties.setTrustedProxies(List.of(PROXY));
+        admissionControlService = new AdmissionControlService(properties);
+        interceptor = new AdmissionInterceptor(admissionControlService,
+                properties.getTrustedProxies(), properties.getForwardedHeader());
+        handler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+    }
+
+    @Test
+    public void testClientHeadersDoNotBypassTheClientLimit() throws Exception {
+        // A direct client cannot pick a new identity per request
+        assertEquals(200, write("203.0.113.7", "X-Client-Id", "a"));
+        assertEquals(200, write("203.0.113.7", "X-Forwarded-For", "198.51.100.1"));
+        assertEquals(429, write("203.0.113.7", "X-Forwarded-For", "198.51.100.2"));
+        assertEquals(200, write("203.0.113.8", null, null));
+    }
+
+    @Test
+    public void testTrustedProxyForwardsTheClientAddress() throws Exception {
+        // The right-most hop added by the trusted proxy counts, what the client put in front of it does not
+        assertEquals(200, write(PROXY, "X-Forwarded-For", "1.1.1.1, 198.51.100.9"));
+        assertEquals(200, write(PROXY, "X-Forwarded-For", "2.2.2.2, 198.51.100.9"));
+        assertEquals(429, write(PROXY, "X-Forwarded-For", "198.51.100.9"));
+        assertEquals(200, write(PROXY, "X-Forwarded-For", "198.51.100.10"));
+    }
+
+    @Test
+    public void testBatchPaysForEveryOperation() throws Exception {
+        // Two operations use up the client's burst of two, a third one is not affordable
+        MockHttpServletRequest batch = request("POST", "/api/PG2/batch", "203.0.113.20");
+        assertTrue(interceptor.preHandle(batch, new MockHttpServletResponse(), handler));
+        assertTrue(charge(batch, 1).admitted());
+        assertEquals(429, write("/api/PG2/batch", "203.0.113.20", null, null));
+
+        MockHttpServletRequest larger = request("POST", "/api/PG2/batch", "203.0.113.21");
+        assertTrue(interceptor.preHandle(larger, new MockHttpServletResponse(), handler));
+        AdmissionControlService.Admission rest = charge(larger, 2);
+        assertFalse(rest.admitted());
+        assertTrue(rest.retryAfterSeconds() > 0);
+        // Nothing was taken for the refused operations
+        assertTrue(charge(larger, 1).admitted());
+        interceptor.afterCompletion(batch, new MockHttpServletResponse(), handler, null);
+        interceptor.afterCompletion(larger, new MockHttpServletResponse(), handler, null);
+    }
+
+    @Test
+    public void testRouteCostingMoreThanItsBurstIsRejectedAtStartup() {
+        AdmissionProperties properties = new AdmissionProperties();
+        AdmissionProperties.Route route = new AdmissionProperties.Route();
+        route.setMethod("POST");
+        route.setPattern("/api/PG2/rooms/bulk-delete");
+        route.setCost(10);
+        route.setPerClient(new AdmissionProperties.Limit(1, 5));
+        properties.setRoutes(List.of(route));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControlService(properties));
+    }
+
+    private AdmissionControlService.Admission charge(MockHttpServletRequest request, int units) {
+        return admissionControlService.charge(request.getMethod(), request.getRequestURI(),
+                (String) request.getAttribute(AdmissionInterceptor.CLIENT_ATTRIBUTE), units);
+    }
+
+    private int write(String remoteAddress, String header, String value) throws Exception {
+        return write("/api/PG2/guests", remoteAddress, header, value);
+    }
+
+    private int write(String path, String remoteAddress, String header, String value) throws Exception {
+        MockHttpServletRequest request = request("POST", path, remoteAddress);
+        if (header != null) {
+            request.addHeader(header, value);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor.preHandle(request, response, handler)) {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, path);
+        return request;
+    }
+}
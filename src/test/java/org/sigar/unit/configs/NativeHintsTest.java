@@ -0,0 +1,38 @@
+package org.sigar.unit.configs;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.configs.NativeHintsConfig;
+import org.sigar.dto.RoomResponseDTO;
+import org.sigar.events.GuestCheckoutPayload;
+import org.sigar.model.Guest;
+import org.sigar.model.Room;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    public NativeHintsTest() {
+        new NativeHintsConfig.Registrar().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testEntitiesAreBindable() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Room.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        // Lombok generated accessors are what Jackson calls
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Guest.class.getMethod("getPhoneNumber")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Guest.class.getMethod("setPhoneNumber", String.class)).test(hints));
+    }
+
+    @Test
+    public void testRecordsAndSchemaScriptAreRegistered() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(RoomResponseDTO.class.getMethod("roomNumber")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GuestCheckoutPayload.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/schema.sql").test(hints));
+    }
+}
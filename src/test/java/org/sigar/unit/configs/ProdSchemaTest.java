@@ -0,0 +1,45 @@
+package org.sigar.unit.configs;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Hibernate validates db/schema.sql against the entities while the context starts, so every test here fails when
+// an entity changed without regenerating the script
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod-schema;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/prod-schema-test/journal"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+public class ProdSchemaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // open-in-view is off in prod, listings must not touch lazy associations after the session is closed
+    @Test
+    public void testListingsLoadAssociationsWithoutOpenInView() throws Exception {
+        mockMvc.perform(post("/api/PG2/rooms").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roomNumber\":301,\"floor\":3,\"isAvailable\":true}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/PG2/rooms/1/guests").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Kiran\",\"age\":24}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/PG2/rooms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].guestNames[0]").value("Kiran"));
+        mockMvc.perform(get("/api/PG2/guests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].roomNumber").value(301));
+    }
+}
@@ -0,0 +1,87 @@
+package org.sigar.unit.controller;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.model.Room;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.service.RoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:composite;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/composite-test/journal"
+})
+@AutoConfigureMockMvc
+public class CompositeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private RentalContractRepository contractRepository;
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+
+    @Test
+    public void testCheckInBatchCommitsOnceAndRollsBackOnFailure() throws Exception {
+        Room room = new Room();
+        room.setRoomNumber(101);
+        room.setFloor(1);
+        room.setAvailable(true);
+        long roomId = roomService.addRoom(room).getRoomId();
+
+        mockMvc.perform(post("/api/PG2/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(checkIn("/rooms/" + roomId + "/guests")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].body.roomNumber").value(101))
+                .andExpect(jsonPath("$.results[3].body.amount").value(10000));
+        assertEquals(1, guestRepository.count());
+        assertEquals(1, contractRepository.count());
+        assertEquals(1, transactionRepository.count());
+
+        // The room does not exist: the guest registered first is rolled back and the rest is not run
+        mockMvc.perform(post("/api/PG2/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(checkIn("/rooms/" + (roomId + 100) + "/guests")))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.committed").value(false))
+                .andExpect(jsonPath("$.results[1].status").value(404))
+                .andExpect(jsonPath("$.results[3].status").value(424));
+        assertEquals(1, guestRepository.count());
+        assertEquals(1, transactionRepository.count());
+
+        mockMvc.perform(post("/api/PG2/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[{\"method\":\"POST\",\"path\":\"/payment/transaction\","
+                                + "\"body\":{\"rentalContract\":{\"id\":\"$ref:missing\"},\"amount\":1}}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.results[0].error").value("Unknown reference $ref:missing, it must name an earlier operation"));
+    }
+
+    private static String checkIn(String roomGuestsPath) {
+        return "{\"operations\":["
+                + "{\"referenceId\":\"guest\",\"method\":\"POST\",\"path\":\"/guests\",\"body\":{\"name\":\"Asha\",\"age\":27}},"
+                + "{\"method\":\"POST\",\"path\":\"" + roomGuestsPath + "\",\"body\":{\"guestId\":\"$ref:guest\"}},"
+                + "{\"referenceId\":\"contract\",\"method\":\"POST\",\"path\":\"/payment/rentalContract\","
+                + "\"body\":{\"guest\":{\"guestId\":\"$ref:guest\"},\"guestName\":\"Asha\",\"monthlyRentAmount\":5000}},"
+                + "{\"method\":\"POST\",\"path\":\"/payment/transaction\","
+                + "\"body\":{\"rentalContract\":{\"id\":\"$ref:contract\"},\"amount\":10000,\"transactionType\":\"ADVANCE\"}}"
+                + "]}";
+    }
+}
@@ -0,0 +1,103 @@
+package org.sigar.unit.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.sigar.configs.PropertyContext;
+import org.sigar.model.Guest;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-default;DB_CLOSE_DELAY=-1",
+        "pg2.shards.urls.annex=jdbc:h2:mem:sharding-annex;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/sharding-test/journal"
+})
+@AutoConfigureMockMvc
+public class PropertyShardingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Test
+    public void testPropertyPrefixRoutesToItsOwnShard() throws Exception {
+        long defaultRoomId = addRoom("/api/PG2/rooms", 101);
+        long annexRoomId = addRoom("/api/PG2/annex/rooms", 201);
+        addRoom("/api/PG2/annex/rooms", 202);
+        // Each shard has its own identity sequence
+        assertEquals(defaultRoomId, annexRoomId);
+
+        mockMvc.perform(post("/api/PG2/annex/rooms/" + annexRoomId + "/guests")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ravi\",\"age\":31}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/PG2/rooms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].roomNumber").value(101))
+                .andExpect(jsonPath("$[0].guestNames.length()").value(0));
+        mockMvc.perform(get("/api/PG2/annex/rooms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].guestNames[0]").value("Ravi"));
+        mockMvc.perform(get("/api/PG2/nowhere/rooms"))
+                .andExpect(status().isNotFound());
+
+        List<Guest> annexGuests = PropertyContext.callIn("annex", guestRepository::findAll);
+        assertEquals(1, annexGuests.size());
+        assertEquals("annex", annexGuests.get(0).getPropertyId());
+        assertEquals("annex", PropertyContext.callIn("annex", () -> roomRepository.findAll().get(0).getPropertyId()));
+        assertEquals(0, guestRepository.count());
+
+        long guestId = annexGuests.get(0).getGuestId();
+        JsonNode contract = postJson("/api/PG2/annex/payment/rentalContract",
+                "{\"guest\":{\"guestId\":" + guestId + "},\"guestName\":\"Ravi\",\"monthlyRentAmount\":6000}");
+        postJson("/api/PG2/annex/payment/transaction",
+                "{\"rentalContract\":{\"id\":" + contract.get("id").asLong() + "},\"amount\":6000,\"transactionType\":\"RENT_PAYMENT\"}");
+
+        mockMvc.perform(get("/api/PG2/reports/properties"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].propertyId").value("default"))
+                .andExpect(jsonPath("$[0].rooms").value(1))
+                .andExpect(jsonPath("$[0].guests").value(0))
+                .andExpect(jsonPath("$[0].amountCollected").value(0))
+                .andExpect(jsonPath("$[1].propertyId").value("annex"))
+                .andExpect(jsonPath("$[1].rooms").value(2))
+                .andExpect(jsonPath("$[1].availableRooms").value(1))
+                .andExpect(jsonPath("$[1].guests").value(1))
+                .andExpect(jsonPath("$[1].rentalContracts").value(1))
+                .andExpect(jsonPath("$[1].amountCollected").value(6000));
+    }
+
+    private long addRoom(String path, int roomNumber) throws Exception {
+        return postJson(path, "{\"roomNumber\":" + roomNumber + ",\"floor\":" + roomNumber / 100 + ",\"isAvailable\":true}")
+                .get("roomId").asLong();
+    }
+
+    private JsonNode postJson(String path, String body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+}
@@ -0,0 +1,113 @@
+package org.sigar.unit.model;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sigar.model.Guest;
+import org.sigar.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class EntityIdentityTest {
+
+    private static final int GUESTS = 2000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private long roomId;
+    private final List<Long> guestIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Room room = new Room();
+        room.setRoomNumber(101);
+        room.setFloor(1);
+        entityManager.persist(room);
+        for (int i = 0; i < GUESTS; i++) {
+            Guest guest = new Guest();
+            guest.setName("Guest " + i);
+            guest.setRoom(room);
+            entityManager.persist(guest);
+            guestIds.add(guest.getGuestId());
+        }
+        roomId = room.getRoomId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testSetMembershipNeverInitializesProxies() {
+        Set<Guest> guests = new HashSet<>();
+        for (long id : guestIds) {
+            guests.add(entityManager.getEntityManager().getReference(Guest.class, id));
+        }
+        assertEquals(GUESTS, guests.size());
+
+        // Every id lands in its own bucket, so a lookup compares against one entry instead of scanning
+        assertEquals(GUESTS, guests.stream().mapToInt(Object::hashCode).distinct().count());
+
+        Guest probe = new Guest();
+        probe.setGuestId(guestIds.get(GUESTS / 2));
+        assertTrue(guests.contains(probe));
+        assertTrue(guests.remove(probe));
+        assertFalse(guests.contains(probe));
+        assertEquals(GUESTS - 1, guests.size());
+
+        assertTrue(guests.stream().noneMatch(Hibernate::isInitialized));
+    }
+
+    @Test
+    public void testEqualityIgnoresLazyAssociations() {
+        Guest first = entityManager.find(Guest.class, guestIds.get(0));
+        Guest second = entityManager.find(Guest.class, guestIds.get(1));
+        Room room = first.getRoom();
+        assertFalse(Hibernate.isInitialized(room));
+
+        Guest copy = new Guest();
+        copy.setGuestId(first.getGuestId());
+        assertEquals(first, copy);
+        assertEquals(first.hashCode(), copy.hashCode());
+        assertNotEquals(first, second);
+        assertFalse(first.toString().contains("room"));
+
+        Room sameRoom = new Room();
+        sameRoom.setRoomId(roomId);
+        assertEquals(room, sameRoom);
+        assertEquals(sameRoom, room);
+        assertEquals(sameRoom.hashCode(), room.hashCode());
+        assertFalse(Hibernate.isInitialized(room));
+    }
+
+    @Test
+    public void testRemoveGuestFromLoadedRoom() {
+        Room room = entityManager.find(Room.class, roomId);
+        Guest guest = entityManager.find(Guest.class, guestIds.get(7));
+
+        room.removeGuest(guest);
+
+        assertEquals(GUESTS - 1, room.getGuests().size());
+        assertFalse(room.getGuests().contains(guest));
+        assertTrue(room.isAvailable());
+    }
+
+    @Test
+    public void testTransientEntitiesAreOnlyEqualToThemselves() {
+        Guest guest = new Guest();
+        Guest other = new Guest();
+        assertEquals(guest, guest);
+        assertNotEquals(guest, other);
+    }
+}
@@ -0,0 +1,92 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.dto.ArchiveRunDTO;
+import org.sigar.dto.ArchiveStatusDTO;
+import org.sigar.dto.PaymentTransactionResponseDTO;
+import org.sigar.dto.TransactionHistoryPageDTO;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.model.RentalContract;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.service.ArchiveService;
+import org.sigar.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A batch size of two moves the three old transactions in two batches
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/archive-test/journal",
+        "pg2.archive.horizon-days=365",
+        "pg2.archive.batch-size=2",
+        "pg2.archive.batch-pause-ms=0",
+        "pg2.archive.initial-delay-ms=3600000"
+})
+public class ArchiveServiceTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private RentalContractRepository contractRepository;
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+
+    @Test
+    public void testHistoryReadsThroughToArchive() {
+        RentalContract contract = new RentalContract();
+        contract.setGuestName("Archived Guest");
+        contract.setRoomNumber(101);
+        contract = contractRepository.save(contract);
+        LocalDate today = LocalDate.now();
+        save(contract, today.minusDays(900), 1000);
+        save(contract, today.minusDays(600), 2000);
+        save(contract, today.minusDays(400), 3000);
+        save(contract, today.minusDays(30), 4000);
+        save(contract, today.minusDays(1), 5000);
+
+        ArchiveRunDTO run = archiveService.archive().orElseThrow();
+        assertEquals(3, run.transactionsArchived());
+        assertEquals(2, run.batches());
+        assertEquals(2, transactionRepository.count());
+        ArchiveStatusDTO status = archiveService.getStatus();
+        assertEquals(3, status.archivedTransactions());
+        // The watermark is the day before the horizon, not the newest archived date
+        assertEquals(today.minusDays(366), status.transactionsArchivedThrough());
+        assertTrue(archiveService.archiveMayHoldTransactionsFrom(today.minusDays(366)));
+        assertFalse(archiveService.archiveMayHoldTransactionsFrom(today.minusDays(365)));
+
+        // Pages walk from the hot table into the archive without a gap or a duplicate
+        TransactionHistoryPageDTO first = paymentService.getTransactionHistory(contract.getId(), null, null, 3).orElseThrow();
+        assertEquals(List.of(5000, 4000, 3000), amounts(first));
+        TransactionHistoryPageDTO second = paymentService.getTransactionHistory(contract.getId(),
+                first.nextBeforeDate(), first.nextBeforeId(), 3).orElseThrow();
+        assertEquals(List.of(2000, 1000), amounts(second));
+        assertNull(second.nextBeforeId());
+
+        // Nothing left to move
+        assertEquals(0, archiveService.archive().orElseThrow().transactionsArchived());
+    }
+
+    private void save(RentalContract contract, LocalDate date, int amount) {
+        PaymentTransaction transaction = PaymentTransaction.createPaymentTransaction(contract, amount,
+                TransactionType.RENT_PAYMENT, null);
+        transaction.setTransactionDate(date);
+        transactionRepository.save(transaction);
+    }
+
+    private static List<Integer> amounts(TransactionHistoryPageDTO page) {
+        return page.transactions().stream().map(PaymentTransactionResponseDTO::amount).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.Beds;
+import org.sigar.dto.BulkOperationResultDTO;
+import org.sigar.model.Guest;
+import org.sigar.model.Room;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.RoomRepository;
+import org.sigar.service.GuestRoomManager;
+import org.sigar.service.RoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:guest-room-manager;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/guest-room-manager-test/journal"
+})
+public class GuestRoomManagerTest {
+
+    @Autowired
+    private GuestRoomManager guestRoomManager;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Test
+    public void testFloorCheckoutReleasesRoomsAndRemovesGuests() {
+        long occupied = addRoom(301, 3, Beds.SINGLE);
+        long shared = addRoom(302, 3, Beds.DOUBLE);
+        long empty = addRoom(303, 3, Beds.SINGLE);
+        long otherFloor = addRoom(401, 4, Beds.SINGLE);
+        List<Long> checkedOut = List.of(checkIn(occupied, "Asha"), checkIn(shared, "Bhanu"), checkIn(shared, "Chetan"));
+        long staying = checkIn(otherFloor, "Deepa");
+        assertFalse(available(occupied));
+
+        BulkOperationResultDTO result = guestRoomManager.checkoutFloor(3);
+
+        assertEquals(new BulkOperationResultDTO(3, 3, 0, 3, 0), result);
+        checkedOut.forEach(guestId -> assertFalse(guestRepository.existsById(guestId)));
+        assertTrue(guestRepository.existsById(staying));
+        assertTrue(available(occupied));
+        assertTrue(available(shared));
+        assertTrue(available(empty));
+        assertFalse(available(otherFloor));
+        assertEquals(BulkOperationResultDTO.empty(0), guestRoomManager.checkoutFloor(9));
+    }
+
+    @Test
+    public void testRoomRemovalDetachesGuests() {
+        long first = addRoom(501, 5, Beds.SINGLE);
+        long second = addRoom(502, 5, Beds.SINGLE);
+        long kept = addRoom(601, 6, Beds.SINGLE);
+        long detached = checkIn(first, "Esha");
+        long housed = checkIn(kept, "Farhan");
+
+        BulkOperationResultDTO removed = guestRoomManager.removeRooms(List.of(first, second, first, 999L));
+
+        assertEquals(new BulkOperationResultDTO(3, 0, 1, 0, 2), removed);
+        assertFalse(roomRepository.existsById(first));
+        assertFalse(roomRepository.existsById(second));
+        assertNull(roomOf(detached));
+        assertEquals(kept, roomOf(housed));
+
+        BulkOperationResultDTO floor = guestRoomManager.removeFloor(6);
+
+        assertEquals(new BulkOperationResultDTO(1, 0, 1, 0, 1), floor);
+        assertFalse(roomRepository.existsById(kept));
+        // Guests outlive their rooms
+        assertTrue(guestRepository.existsById(housed));
+        assertNull(roomOf(housed));
+        assertEquals(BulkOperationResultDTO.empty(0), guestRoomManager.removeFloor(6));
+    }
+
+    private boolean available(long roomId) {
+        return roomRepository.findById(roomId).orElseThrow().isAvailable();
+    }
+
+    private Long roomOf(long guestId) {
+        return guestRepository.findGuestRoomsByGuestIdIn(List.of(guestId)).get(0).getRoomId();
+    }
+
+    private long addRoom(int roomNumber, int floor, Beds beds) {
+        Room room = new Room();
+        room.setRoomNumber(roomNumber);
+        room.setFloor(floor);
+        room.setBeds(beds);
+        room.setAvailable(true);
+        return roomService.addRoom(room).getRoomId();
+    }
+
+    private long checkIn(long roomId, String name) {
+        Guest guest = new Guest();
+        guest.setName(name);
+        guest.setAge(30);
+        guest.setDateOfOccupancy(LocalDate.now());
+        roomService.addGuestToRoom(roomId, guest);
+        return guest.getGuestId();
+    }
+}
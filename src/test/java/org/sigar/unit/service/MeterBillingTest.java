@@ -0,0 +1,89 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.MeterType;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.dto.MeterBillingDTO;
+import org.sigar.dto.MeterReadingDTO;
+import org.sigar.model.RentalContract;
+import org.sigar.model.Room;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.repo.RoomRepository;
+import org.sigar.service.MeterReadingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:meter-billing;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/meter-billing-test/journal"
+})
+public class MeterBillingTest {
+
+    private static final int RUNS = 8;
+
+    @Autowired
+    private MeterReadingService meterReadingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RentalContractRepository contractRepository;
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+
+    @Test
+    public void testConcurrentRunsBillEachContractOnce() throws Exception {
+        Room room = new Room();
+        room.setRoomNumber(101);
+        room.setFloor(1);
+        room = roomRepository.save(room);
+        RentalContract contract = new RentalContract();
+        contract.setGuestName("Metered Guest");
+        contract.setRoomNumber(101);
+        contract.setRoom(room);
+        contract = contractRepository.save(contract);
+        YearMonth month = YearMonth.now().minusMonths(1);
+        meterReadingService.ingest(List.of(
+                new MeterReadingDTO(room.getRoomId(), MeterType.ELECTRICITY, month.atDay(1).atStartOfDay(), 100.0),
+                new MeterReadingDTO(room.getRoomId(), MeterType.ELECTRICITY, month.atDay(20).atStartOfDay(), 150.0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(RUNS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<MeterBillingDTO>>> runs = new ArrayList<>();
+        try {
+            for (int i = 0; i < RUNS; i++) {
+                runs.add(executor.submit(() -> {
+                    start.await();
+                    return meterReadingService.bill(month, MeterType.ELECTRICITY);
+                }));
+            }
+            start.countDown();
+            int billed = 0;
+            for (Future<Optional<MeterBillingDTO>> run : runs) {
+                billed += run.get().map(MeterBillingDTO::contractsBilled).orElse(0);
+            }
+            assertEquals(1, billed);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Once the runs are done the month counts as billed
+        MeterBillingDTO again = meterReadingService.bill(month, MeterType.ELECTRICITY).orElseThrow();
+        assertEquals(0, again.contractsBilled());
+        assertEquals(1, again.contractsAlreadyBilled());
+        assertEquals(1, transactionRepository.findContractIdsByTypeAndNotes(TransactionType.ELECTRICITY,
+                "Metered ELECTRICITY " + month).size());
+        assertEquals(400, transactionRepository.findAll().get(0).getAmount());
+    }
+}
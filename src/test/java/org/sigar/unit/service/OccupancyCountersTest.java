@@ -0,0 +1,97 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.Beds;
+import org.sigar.dto.OccupancyDTO;
+import org.sigar.model.Guest;
+import org.sigar.model.Room;
+import org.sigar.service.GuestRoomManager;
+import org.sigar.service.GuestService;
+import org.sigar.service.OccupancyCounters;
+import org.sigar.service.RoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:occupancy;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/occupancy-test/journal"
+})
+public class OccupancyCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private OccupancyCounters occupancyCounters;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private GuestService guestService;
+    @Autowired
+    private GuestRoomManager guestRoomManager;
+
+    @Test
+    public void testCheckoutsAdjustCountersWithoutReseeding() {
+        long doubleRoom = addRoom(201, Beds.DOUBLE);
+        long singleRoom = addRoom(202, Beds.SINGLE);
+        long first = checkIn(doubleRoom, "Anil");
+        long second = checkIn(doubleRoom, "Bela");
+        long third = checkIn(singleRoom, "Chitra");
+        long roomless = guestService.addGuest(guest("Dev")).getGuestId();
+        LocalDateTime seededAt = occupancy().seededAt();
+        // Registering without a room is no check-in
+        assertCounts(2, 0, 3, 3);
+
+        // Guests who left still arrived
+        guestRoomManager.removeGuest(first);
+        assertCounts(2, 1, 2, 3);
+        guestRoomManager.removeGuest(roomless);
+        assertCounts(2, 1, 2, 3);
+        guestRoomManager.checkoutGuests(List.of(second, third));
+        assertCounts(2, 2, 0, 3);
+
+        assertEquals(seededAt, occupancy().seededAt());
+        occupancyCounters.checkDrift();
+        assertEquals(0, occupancy().driftCorrections());
+    }
+
+    private void assertCounts(long rooms, long availableRooms, long residents, long arrivals) {
+        OccupancyDTO occupancy = occupancy();
+        assertEquals(rooms, occupancy.rooms());
+        assertEquals(availableRooms, occupancy.availableRooms());
+        assertEquals(residents, occupancy.residents());
+        assertEquals(arrivals, occupancy.arrivals());
+    }
+
+    private OccupancyDTO occupancy() {
+        return occupancyCounters.getOccupancy(TODAY.minusDays(1), TODAY.plusDays(1));
+    }
+
+    private long addRoom(int roomNumber, Beds beds) {
+        Room room = new Room();
+        room.setRoomNumber(roomNumber);
+        room.setFloor(2);
+        room.setBeds(beds);
+        room.setAvailable(true);
+        return roomService.addRoom(room).getRoomId();
+    }
+
+    private long checkIn(long roomId, String name) {
+        Guest guest = guest(name);
+        roomService.addGuestToRoom(roomId, guest);
+        return guest.getGuestId();
+    }
+
+    private static Guest guest(String name) {
+        Guest guest = new Guest();
+        guest.setName(name);
+        guest.setAge(30);
+        guest.setDateOfOccupancy(TODAY);
+        return guest;
+    }
+}
@@ -0,0 +1,101 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.OutboxEventType;
+import org.sigar.model.OutboxEvent;
+import org.sigar.repo.OutboxEventRepository;
+import org.sigar.service.OutboxEventConsumer;
+import org.sigar.service.OutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-relay;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/outbox-relay-test/journal",
+        "pg2.outbox.poll-interval-ms=3600000",
+        "pg2.outbox.batch-size=5",
+        "pg2.outbox.max-attempts=3",
+        "pg2.outbox.retry-backoff-ms=60000"
+})
+public class OutboxRelayTest {
+
+    private static final long FAILING_ROOM = 1;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @TestConfiguration
+    static class FailingConsumerConfig {
+        @Bean
+        OutboxEventConsumer failingRoomConsumer() {
+            return event -> {
+                if (event.getAggregateId() == FAILING_ROOM) {
+                    throw new IllegalStateException("Room " + FAILING_ROOM + " is unreachable");
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testFailingAggregateDoesNotStarveTheOthers() {
+        // The failing aggregate fills a whole batch at the head of the outbox
+        List<OutboxEvent> failing = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            failing.add(save(FAILING_ROOM));
+        }
+        List<OutboxEvent> others = List.of(save(2), save(3), save(2), save(4));
+
+        outboxRelay.relay();
+
+        for (OutboxEvent event : others) {
+            assertNotNull(reload(event).getPublishedAt());
+        }
+        OutboxEvent head = reload(failing.get(0));
+        assertEquals(1, head.getAttempts());
+        assertNotNull(head.getNextAttemptAt());
+        assertEquals(0, reload(failing.get(1)).getAttempts());
+
+        // Still backing off: nothing of the failing room is tried again
+        outboxRelay.relay();
+        assertEquals(1, reload(failing.get(0)).getAttempts());
+
+        // The last attempt parks the head event and the next event of the room gets its turn
+        head.setAttempts(2);
+        head.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(head);
+        outboxRelay.relay();
+        head = reload(failing.get(0));
+        assertEquals(3, head.getAttempts());
+        assertNotNull(head.getParkedAt());
+        assertNull(head.getPublishedAt());
+        assertEquals(1, reload(failing.get(1)).getAttempts());
+        assertEquals(1, outboxEventRepository.countParked());
+        assertEquals(5, outboxEventRepository.countUnpublished());
+    }
+
+    private OutboxEvent save(long roomId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType("Room");
+        event.setAggregateId(roomId);
+        event.setEventType(OutboxEventType.GUEST_CHECKED_IN);
+        event.setPayload("{}");
+        event.setCreatedAt(LocalDateTime.now());
+        return outboxEventRepository.save(event);
+    }
+
+    private OutboxEvent reload(OutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow();
+    }
+}
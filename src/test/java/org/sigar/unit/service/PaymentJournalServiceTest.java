@@ -0,0 +1,105 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.configs.PropertyRegistry;
+import org.sigar.dto.JournalVerificationDTO;
+import org.sigar.dto.PaymentTransactionResponseDTO;
+import org.sigar.dto.RentalContractResponseDTO;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.model.RentalContract;
+import org.sigar.repo.ArchivedPaymentTransactionRepository;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.service.PaymentJournalService;
+import org.sigar.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A fresh journal directory per run, the database is in memory as well
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:journal-backfill;DB_CLOSE_DELAY=-1")
+public class PaymentJournalServiceTest {
+
+    private static final String JOURNAL_DIR = "target/journal-backfill-test/" + UUID.randomUUID();
+
+    @Autowired
+    private PaymentJournalService paymentJournalService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+    @Autowired
+    private ArchivedPaymentTransactionRepository archivedTransactionRepository;
+    @Autowired
+    private RentalContractRepository contractRepository;
+    @Autowired
+    private PropertyRegistry propertyRegistry;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("pg2.journal.dir", () -> JOURNAL_DIR);
+    }
+
+    @Test
+    public void testBackfillRepairsPaymentsMissedAfterCommit() {
+        long contractId = contract("Meera");
+        paymentService.addPaymentTransaction(payment(contractId, 7000));
+        long events = paymentJournalService.verify().events();
+
+        // Committed, but the process died before the journal append
+        transactionRepository.save(payment(contractId, 500));
+        JournalVerificationDTO broken = paymentJournalService.verify();
+        assertTrue(broken.mismatchedContractIds().contains(contractId));
+
+        paymentJournalService.afterSingletonsInstantiated();
+        JournalVerificationDTO repaired = paymentJournalService.verify();
+        assertEquals(events + 1, repaired.events());
+        assertEquals(List.of(), repaired.mismatchedContractIds());
+
+        // Nothing new: a second startup appends nothing
+        paymentJournalService.afterSingletonsInstantiated();
+        assertEquals(events + 1, paymentJournalService.verify().events());
+
+        // Journaled in commit order: the earlier id commits after the later one and the process dies before
+        // it is journaled. A new service on the same directory stands in for the restart.
+        long otherContractId = contract("Nikhil");
+        PaymentTransaction earlier = transactionRepository.save(payment(otherContractId, 300));
+        PaymentTransactionResponseDTO later = paymentService.addPaymentTransaction(payment(otherContractId, 400));
+        assertTrue(earlier.getTransactionID() < later.transactionId());
+        assertEquals(List.of(otherContractId), paymentJournalService.verify().mismatchedContractIds());
+
+        PaymentJournalService restarted = new PaymentJournalService(transactionRepository, archivedTransactionRepository,
+                propertyRegistry, JOURNAL_DIR, 64);
+        restarted.afterSingletonsInstantiated();
+        JournalVerificationDTO afterRestart = restarted.verify();
+        assertEquals(events + 3, afterRestart.events());
+        assertEquals(List.of(), afterRestart.mismatchedContractIds());
+        restarted.close();
+    }
+
+    private long contract(String guestName) {
+        RentalContract contract = new RentalContract();
+        contract.setGuestName(guestName);
+        contract.setMonthlyRentAmount(7000.0);
+        RentalContractResponseDTO savedContract = paymentService.addRentalContract(contract);
+        return savedContract.id();
+    }
+
+    private PaymentTransaction payment(long contractId, int amount) {
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setRentalContract(contractRepository.getReferenceById(contractId));
+        transaction.setAmount(amount);
+        transaction.setTransactionType(TransactionType.ADVANCE);
+        transaction.setTransactionDate(LocalDate.now());
+        return transaction;
+    }
+}
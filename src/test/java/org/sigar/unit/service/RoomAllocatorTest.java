@@ -0,0 +1,94 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.service.RoomAllocator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoomAllocatorTest {
+
+    private final RoomAllocator allocator = new RoomAllocator(1_000_000);
+
+    @Test
+    public void testPicksCheapestCombination() {
+        List<RoomAllocator.Candidate> rooms = List.of(
+                new RoomAllocator.Candidate(1, 1, 4, 9000),
+                new RoomAllocator.Candidate(2, 1, 2, 4000),
+                new RoomAllocator.Candidate(3, 1, 2, 4200),
+                new RoomAllocator.Candidate(4, 2, 1, 2500));
+
+        RoomAllocator.Allocation allocation = allocator.allocate(rooms, 4, null).orElseThrow();
+
+        assertEquals(8200, allocation.totalRent());
+        assertEquals(4, allocation.totalBeds());
+        assertEquals(2, allocation.rooms().size());
+    }
+
+    @Test
+    public void testRespectsBudget() {
+        List<RoomAllocator.Candidate> rooms = List.of(
+                new RoomAllocator.Candidate(1, 1, 2, 4000),
+                new RoomAllocator.Candidate(2, 1, 2, 4000));
+
+        assertTrue(allocator.allocate(rooms, 4, 7999).isEmpty());
+        assertTrue(allocator.allocate(rooms, 5, null).isEmpty());
+    }
+
+    @Test
+    public void testMatchesBruteForceOnSmallInputs() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<RoomAllocator.Candidate> rooms = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                rooms.add(new RoomAllocator.Candidate(i, 1, 1 + random.nextInt(4), 1000 + random.nextInt(9000)));
+            }
+            int groupSize = 1 + random.nextInt(10);
+
+            Optional<RoomAllocator.Allocation> allocation = allocator.allocate(rooms, groupSize, null);
+
+            assertEquals(bruteForceCheapest(rooms, groupSize), allocation.map(RoomAllocator.Allocation::totalRent).orElse(-1));
+        }
+    }
+
+    @Test
+    public void testAnswersQuicklyForThousandsOfRooms() {
+        Random random = new Random(11);
+        List<RoomAllocator.Candidate> rooms = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rooms.add(new RoomAllocator.Candidate(i, random.nextInt(20), 1 + random.nextInt(4), 3000 + random.nextInt(12000)));
+        }
+
+        // Optimal means the search finished within its node budget, the timeout only catches a runaway search
+        RoomAllocator.Allocation allocation = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> allocator.allocate(rooms, 40, null).orElseThrow());
+
+        assertTrue(allocation.optimal());
+        assertTrue(allocation.totalBeds() >= 40);
+    }
+
+    private static int bruteForceCheapest(List<RoomAllocator.Candidate> rooms, int groupSize) {
+        int best = -1;
+        for (int mask = 1; mask < (1 << rooms.size()); mask++) {
+            int beds = 0;
+            int rent = 0;
+            for (int i = 0; i < rooms.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    beds += rooms.get(i).capacity();
+                    rent += rooms.get(i).rent();
+                }
+            }
+            if (beds >= groupSize && (best == -1 || rent < best)) {
+                best = rent;
+            }
+        }
+        return best;
+    }
+}
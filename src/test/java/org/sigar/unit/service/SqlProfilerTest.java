@@ -0,0 +1,64 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.configs.SqlProfilerProperties;
+import org.sigar.dto.SqlFingerprintProfileDTO;
+import org.sigar.dto.SqlProfileDTO;
+import org.sigar.dto.SqlRequestProfileDTO;
+import org.sigar.service.SqlProfiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlProfilerTest {
+
+    @Test
+    public void testFingerprintReplacesLiteralsAndInLists() {
+        assertEquals("select g1_0.guest_id from guest g1_0 where g1_0.name=? and g1_0.age>? and g1_0.room_id in (?...)",
+                SqlProfiler.fingerprint("SELECT g1_0.guest_id\n  FROM guest g1_0 WHERE g1_0.name='O''Neil' and g1_0.age>18.5 "
+                        + "and g1_0.room_id in (1, 2,3)"));
+        assertEquals(SqlProfiler.fingerprint("select * from room where room_id in (?, ?)"),
+                SqlProfiler.fingerprint("select * from room where room_id in (?,?,?,?)"));
+    }
+
+    @Test
+    public void testRepeatedSelectInOneRequestIsFlaggedAsNPlusOne() {
+        SqlProfilerProperties properties = new SqlProfilerProperties();
+        properties.setEnabled(true);
+        properties.setRepeatedSelectThreshold(3);
+        SqlProfiler profiler = new SqlProfiler(properties);
+
+        profiler.beginRequest("GET /api/PG2/rooms");
+        profiler.executed("select * from room", 1_000_000, 0);
+        profiler.rowsRead("select * from room", 4);
+        for (long roomId = 1; roomId <= 4; roomId++) {
+            profiler.executed("select * from guest where room_id=" + roomId, 100_000, 0);
+            profiler.rowsRead("select * from guest where room_id=" + roomId, 1);
+        }
+        profiler.endRequest();
+        profiler.beginRequest("POST /api/PG2/guests");
+        profiler.executed("insert into guest (name) values (?)", 200_000, 1);
+        profiler.endRequest();
+        profiler.executed("delete from outbox_event where id=?", 50_000, 1);
+
+        SqlProfileDTO profile = profiler.getProfile();
+        SqlFingerprintProfileDTO perRoom = profile.topFingerprints().stream()
+                .filter(fingerprint -> fingerprint.fingerprint().equals("select * from guest where room_id=?"))
+                .findFirst().orElseThrow();
+        assertEquals("GET /api/PG2/rooms", perRoom.endpoint());
+        assertEquals(4, perRoom.executions());
+        assertEquals(4, perRoom.rows());
+        assertEquals(1, perRoom.nPlusOneRequests());
+        assertTrue(profile.topFingerprints().stream().anyMatch(fingerprint -> fingerprint.endpoint().equals(SqlProfiler.BACKGROUND)));
+
+        assertEquals(1, profile.nPlusOneRequests().size());
+        SqlRequestProfileDTO sample = profile.nPlusOneRequests().get(0);
+        assertEquals(5, sample.statements().stream().mapToLong(statement -> statement.executions()).sum());
+        assertFalse(sample.statements().get(0).nPlusOne());
+        assertEquals(2, profile.slowestRequests().size());
+
+        profiler.reset();
+        assertTrue(profiler.getProfile().endpoints().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.Constants.enums.StatementFormat;
+import org.sigar.Constants.enums.StatementRunStatus;
+import org.sigar.Constants.enums.TransactionType;
+import org.sigar.dto.StatementRunDTO;
+import org.sigar.model.PaymentTransaction;
+import org.sigar.model.RentalContract;
+import org.sigar.repo.PaymentTransactionRepository;
+import org.sigar.repo.RentalContractRepository;
+import org.sigar.service.StatementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A batch size of two splits the five contracts into three batches
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/statement-test/journal",
+        "pg2.statements.dir=target/statement-test/statements",
+        "pg2.statements.batch-size=2"
+})
+public class StatementServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Autowired
+    private StatementService statementService;
+    @Autowired
+    private RentalContractRepository contractRepository;
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+
+    @Test
+    public void testStatementsInZipAndDirectory() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            RentalContract contract = new RentalContract();
+            contract.setGuestName("Guest " + i);
+            contract.setRoomNumber(100 + i);
+            contract.setMonthlyRentAmount(5000.0);
+            contract = contractRepository.save(contract);
+            save(contract, MONTH.atDay(5), TransactionType.RENT_PAYMENT, 5000);
+            save(contract, MONTH.atEndOfMonth(), TransactionType.ELECTRICITY, 300 + i);
+            // Outside the month
+            save(contract, MONTH.plusMonths(1).atDay(1), TransactionType.RENT_PAYMENT, 7000);
+        }
+
+        StatementRunDTO zipRun = awaitCompletion(statementService.start(MONTH, StatementFormat.ZIP));
+        assertEquals(5, zipRun.statementsWritten());
+        assertEquals(10, zipRun.transactionsIncluded());
+        Map<String, String> entries = readZip(Path.of(zipRun.output()));
+        assertEquals(5, entries.size());
+        String statement = entries.values().stream().filter(text -> text.contains("Guest 3")).findFirst().orElseThrow();
+        assertTrue(statement.contains("Room: 103"));
+        assertTrue(statement.contains("ELECTRICITY"));
+        assertFalse(statement.contains("7000"));
+        assertTrue(statement.matches("(?s).*Utilities\\s+303\\n.*Total\\s+5303\\n.*"));
+
+        StatementRunDTO directoryRun = awaitCompletion(statementService.start(MONTH, StatementFormat.DIRECTORY));
+        try (Stream<Path> files = Files.list(Path.of(directoryRun.output()))) {
+            assertEquals(5, files.count());
+        }
+        assertEquals(zipRun.bytesWritten(), directoryRun.bytesWritten());
+    }
+
+    private void save(RentalContract contract, LocalDate date, TransactionType type, int amount) {
+        PaymentTransaction transaction = PaymentTransaction.createPaymentTransaction(contract, amount, type, null);
+        transaction.setTransactionDate(date);
+        transactionRepository.save(transaction);
+    }
+
+    private StatementRunDTO awaitCompletion(StatementRunDTO started) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        StatementRunDTO run = started;
+        while (run.status() != StatementRunStatus.COMPLETED && System.currentTimeMillis() < deadline) {
+            assertFalse(run.status() == StatementRunStatus.FAILED, run.error());
+            Thread.sleep(20);
+            run = statementService.getRun(started.runId()).orElseThrow();
+        }
+        assertEquals(StatementRunStatus.COMPLETED, run.status());
+        return run;
+    }
+
+    private static Map<String, String> readZip(Path archive) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,128 @@
+package org.sigar.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.dto.StayDTO;
+import org.sigar.model.Guest;
+import org.sigar.model.GuestStay;
+import org.sigar.model.Room;
+import org.sigar.repo.GuestRepository;
+import org.sigar.repo.GuestStayRepository;
+import org.sigar.repo.RoomRepository;
+import org.sigar.service.GuestRoomManager;
+import org.sigar.service.RoomService;
+import org.sigar.service.StayHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stay-history;DB_CLOSE_DELAY=-1",
+        "pg2.journal.dir=target/stay-history-test/journal"
+})
+public class StayHistoryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private StayHistoryService stayHistoryService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private GuestRoomManager guestRoomManager;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private GuestStayRepository stayRepository;
+
+    @Test
+    public void testStaysOpenOnCheckInAndCloseOnEveryWayOut() {
+        // A guest housed before stays were recorded gets an open stay from the date of occupancy
+        Room existing = room(101, 1);
+        Guest resident = guest("Resident", TODAY.minusDays(10));
+        resident.setRoom(roomRepository.save(existing));
+        long residentId = guestRepository.save(resident).getGuestId();
+        stayHistoryService.afterSingletonsInstantiated();
+        StayDTO backfilled = only(stayHistoryService.getRoomStays(existing.getRoomId(), TODAY, TODAY));
+        assertEquals(residentId, backfilled.guestId());
+        assertEquals(TODAY.minusDays(10), backfilled.checkIn());
+        assertNull(backfilled.checkOut());
+
+        long single = roomService.addRoom(room(201, 2)).getRoomId();
+        long bulk = roomService.addRoom(room(202, 2)).getRoomId();
+        long floor = roomService.addRoom(room(301, 3)).getRoomId();
+        long removed = roomService.addRoom(room(401, 4)).getRoomId();
+        long future = roomService.addRoom(room(402, 4)).getRoomId();
+        long singleGuest = checkIn(single, "Single", TODAY.minusDays(3));
+        long bulkGuest = checkIn(bulk, "Bulk", TODAY.minusDays(2));
+        checkIn(floor, "Floor", TODAY.minusDays(1));
+        long detachedGuest = checkIn(removed, "Detached", TODAY.minusDays(4));
+        long futureGuest = checkIn(future, "Future", TODAY.plusDays(5));
+
+        StayDTO opened = only(stayHistoryService.getRoomStays(single, TODAY, TODAY));
+        assertEquals(singleGuest, opened.guestId());
+        assertEquals(201, opened.roomNumber());
+        assertEquals(TODAY.minusDays(3), opened.checkIn());
+        assertNull(opened.checkOut());
+
+        guestRoomManager.removeGuest(singleGuest);
+        guestRoomManager.checkoutGuests(List.of(bulkGuest, futureGuest));
+        guestRoomManager.checkoutFloor(3);
+        guestRoomManager.removeRoom(removed);
+
+        assertClosed(single, TODAY.minusDays(3), TODAY);
+        assertClosed(bulk, TODAY.minusDays(2), TODAY);
+        assertClosed(floor, TODAY.minusDays(1), TODAY);
+        assertClosed(removed, TODAY.minusDays(4), TODAY);
+        // Checked out before the stay started: it ends the day it starts, never before
+        assertClosed(future, TODAY.plusDays(5), TODAY.plusDays(5));
+        assertEquals(detachedGuest, only(stayHistoryService.getRoomStays(removed, TODAY, TODAY)).guestId());
+
+        // The trees and the table agree, only the resident is still in
+        assertEquals(List.of(residentId), stayRepository.findAll().stream()
+                .filter(stay -> stay.getCheckOut() == null).map(GuestStay::getGuestId).toList());
+        assertEquals(List.of(residentId), stayHistoryService.getStays(TODAY.plusDays(1), TODAY.plusDays(30)).stream()
+                .filter(stay -> stay.checkOut() == null).map(StayDTO::guestId).toList());
+        assertEquals(0, stayHistoryService.getRoomStays(single, TODAY.plusDays(1), TODAY.plusDays(30)).size());
+    }
+
+    private void assertClosed(long roomId, LocalDate checkIn, LocalDate checkOut) {
+        StayDTO stay = only(stayHistoryService.getRoomStays(roomId, checkIn, checkIn));
+        assertEquals(checkIn, stay.checkIn());
+        assertEquals(checkOut, stay.checkOut());
+        assertEquals(checkOut, stayRepository.findById(stay.stayId()).orElseThrow().getCheckOut());
+    }
+
+    private static StayDTO only(List<StayDTO> stays) {
+        assertEquals(1, stays.size());
+        return stays.get(0);
+    }
+
+    private long checkIn(long roomId, String name, LocalDate dateOfOccupancy) {
+        Guest guest = guest(name, dateOfOccupancy);
+        roomService.addGuestToRoom(roomId, guest);
+        return guest.getGuestId();
+    }
+
+    private static Room room(int roomNumber, int floor) {
+        Room room = new Room();
+        room.setRoomNumber(roomNumber);
+        room.setFloor(floor);
+        room.setAvailable(true);
+        return room;
+    }
+
+    private static Guest guest(String name, LocalDate dateOfOccupancy) {
+        Guest guest = new Guest();
+        guest.setName(name);
+        guest.setAge(30);
+        guest.setDateOfOccupancy(dateOfOccupancy);
+        return guest;
+    }
+}
@@ -0,0 +1,89 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.utils.IntervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntervalTreeTest {
+
+    private record Interval(long start, long end, long id) {
+    }
+
+    @Test
+    public void testQueriesMatchLinearScan() {
+        Random random = new Random(41);
+        IntervalTree<Interval> tree = new IntervalTree<>();
+        List<Interval> intervals = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            long start = random.nextInt(3650);
+            Interval interval = new Interval(start, start + random.nextInt(120), id);
+            tree.insert(interval.start(), interval.end(), interval.id(), interval);
+            intervals.add(interval);
+        }
+        // Remove every third interval again
+        for (int i = 0; i < intervals.size(); i += 3) {
+            Interval interval = intervals.get(i);
+            assertTrue(tree.remove(interval.start(), interval.id()));
+        }
+        List<Interval> remaining = new ArrayList<>();
+        for (int i = 0; i < intervals.size(); i++) {
+            if (i % 3 != 0) {
+                remaining.add(intervals.get(i));
+            }
+        }
+        assertEquals(remaining.size(), tree.size());
+
+        for (int query = 0; query < 500; query++) {
+            long point = random.nextInt(3800);
+            assertEquals(scan(remaining, point, point), sorted(tree.containing(point)));
+            long from = random.nextInt(3800);
+            long to = from + random.nextInt(90);
+            assertEquals(scan(remaining, from, to), sorted(tree.overlapping(from, to)));
+        }
+    }
+
+    @Test
+    public void testHeightStaysLogarithmicForSortedInserts() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        int count = 100_000;
+        // Check-ins arrive in date order, the worst case for an unbalanced tree
+        for (long id = 0; id < count; id++) {
+            tree.insert(id / 10, id / 10 + 30, id, id);
+        }
+        // An AVL tree is at most about 1.44 log2(n) high
+        assertTrue(tree.height() <= 1.45 * (Math.log(count + 2) / Math.log(2)), "height " + tree.height());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), tree.containing(0));
+        assertEquals(310, tree.containing(5_000).size());
+    }
+
+    @Test
+    public void testReinsertUpdatesEndAndMissingRemoveIsReported() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, Long.MAX_VALUE, 1, "open");
+        assertEquals(List.of("open"), tree.containing(1_000));
+        tree.insert(10, 20, 1, "closed");
+        assertEquals(1, tree.size());
+        assertTrue(tree.containing(1_000).isEmpty());
+        assertEquals(List.of("closed"), tree.overlapping(0, 10));
+        assertFalse(tree.remove(10, 2));
+        assertThrows(IllegalArgumentException.class, () -> tree.insert(5, 4, 3, "invalid"));
+    }
+
+    private static List<Interval> scan(List<Interval> intervals, long from, long to) {
+        return sorted(intervals.stream().filter(interval -> interval.start() <= to && interval.end() >= from).toList());
+    }
+
+    private static List<Interval> sorted(List<Interval> intervals) {
+        return intervals.stream()
+                .sorted((a, b) -> a.start() != b.start() ? Long.compare(a.start(), b.start()) : Long.compare(a.id(), b.id()))
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sigar.utils.MappedJournal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedJournalTest {
+
+    // 4 byte length + 8 byte payload + 4 byte checksum
+    private static final int RECORD_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplaysAcrossSegmentsAndReopen() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, Long.BYTES, RECORD_SIZE * 4);
+        assertTrue(journal.isEmpty());
+        for (long value = 1; value <= 10; value++) {
+            append(journal, value);
+        }
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+        MappedJournal reopened = new MappedJournal(directory, Long.BYTES, RECORD_SIZE * 4);
+        assertFalse(reopened.isEmpty());
+        append(reopened, 11);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L), values(reopened));
+    }
+
+    @Test
+    public void testDropsTornTailRecordOnReopen() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, Long.BYTES, RECORD_SIZE * 8);
+        append(journal, 1);
+        append(journal, 2);
+        append(journal, 3);
+        journal.close();
+
+        // Corrupt the payload of the last record as if the process died half way through writing it
+        Path segment = directory.resolve(String.format("%020d.journal", 0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES), 2L * RECORD_SIZE + Integer.BYTES);
+        }
+
+        MappedJournal reopened = new MappedJournal(directory, Long.BYTES, RECORD_SIZE * 8);
+        assertEquals(List.of(1L, 2L), values(reopened));
+        append(reopened, 4);
+        assertEquals(List.of(1L, 2L, 4L), values(reopened));
+    }
+
+    private static void append(MappedJournal journal, long value) {
+        journal.append((buffer, offset) -> buffer.putLong(offset, value));
+    }
+
+    private static List<Long> values(MappedJournal journal) {
+        List<Long> values = new ArrayList<>();
+        journal.replay((buffer, offset) -> values.add(buffer.getLong(offset)));
+        return values;
+    }
+}
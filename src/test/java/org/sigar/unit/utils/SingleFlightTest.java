@@ -0,0 +1,127 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.utils.SingleFlight;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<String, List<String>> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<String> result = List.of("room 101");
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            Future<List<String>> leader = callers.submit(() -> flight.execute("rooms", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return result;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(callers.submit(() -> flight.execute("rooms", () -> {
+                    loads.incrementAndGet();
+                    return List.of();
+                })));
+            }
+            while (flight.getCollapsed() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            for (Future<List<String>> follower : followers) {
+                assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getExecutions());
+        assertEquals(7, flight.getCollapsed());
+        assertEquals(0, flight.getInFlight());
+
+        // Nothing is cached once the execution completed
+        assertEquals(List.of(), flight.execute("rooms", List::of));
+        assertEquals(2, flight.getExecutions());
+    }
+
+    @Test
+    public void testWaiterRunsItsOwnQueryAfterTimeout() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService leader = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = leader.submit(() -> flight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals("own", flight.execute("key", () -> "own"));
+            release.countDown();
+            assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            leader.shutdownNow();
+        }
+        assertEquals(1, flight.getTimeouts());
+        assertEquals(2, flight.getExecutions());
+    }
+
+    @Test
+    public void testFailureIsSharedAndKeyIsReleased() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService leader = Executors.newSingleThreadExecutor();
+        try {
+            leader.submit(() -> flight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            ExecutorService follower = Executors.newSingleThreadExecutor();
+            Future<String> joined = follower.submit(() -> flight.execute("key", () -> "unused"));
+            while (flight.getCollapsed() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            Exception failure = assertThrows(Exception.class, () -> joined.get(5, TimeUnit.SECONDS));
+            assertEquals("database down", failure.getCause().getMessage());
+            follower.shutdownNow();
+        } finally {
+            leader.shutdownNow();
+        }
+        assertEquals("retried", flight.execute("key", () -> "retried"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.utils.TimeSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TimeSeriesTest {
+
+    private static final LongUnaryOperator HOUR = time -> Math.floorDiv(time, 3600L);
+
+    @Test
+    public void testOutOfOrderPutsStaySortedAndReplace() {
+        TimeSeries series = new TimeSeries();
+        for (long time = 0; time < 100; time++) {
+            series.put(time * 10, time);
+        }
+        series.put(55, -1);
+        series.put(500, 42);
+        series.put(-5, -2);
+        assertEquals(102, series.size());
+        assertEquals(-5, series.timeAt(0));
+        assertEquals(42, series.valueAt(series.floorIndex(500)));
+        assertEquals(-1, series.valueAt(series.floorIndex(59)));
+        assertEquals(60, series.timeAt(series.ceilingIndex(56)));
+        assertEquals(-1, series.floorIndex(-6));
+        assertEquals(series.size(), series.ceilingIndex(991));
+    }
+
+    @Test
+    public void testDownsampleKeepsLastPointOfEachBucket() {
+        TimeSeries raw = new TimeSeries();
+        TimeSeries hourly = new TimeSeries();
+        // Every 15 minutes for 10 hours, the value is the minute
+        for (long minute = 0; minute < 600; minute += 15) {
+            raw.put(minute * 60, minute);
+        }
+        List<Long> dropped = new ArrayList<>();
+        raw.downsampleInto(hourly, 6 * 3600, HOUR, dropped::add);
+
+        assertEquals(6, hourly.size());
+        assertEquals(16, raw.size());
+        assertEquals(18, dropped.size());
+        for (int hour = 0; hour < 6; hour++) {
+            assertEquals(hour * 60 + 45, hourly.valueAt(hour));
+        }
+        assertEquals(360, raw.valueAt(0));
+
+        // A late reading in a compacted hour only survives when it is the latest of its hour
+        raw.put(2 * 3600 + 50 * 60, 170);
+        raw.put(3 * 3600 + 10 * 60, 190);
+        dropped.clear();
+        raw.downsampleInto(hourly, 6 * 3600, HOUR, dropped::add);
+        assertEquals(6, hourly.size());
+        assertEquals(170, hourly.valueAt(2));
+        assertEquals(225, hourly.valueAt(3));
+        assertEquals(List.of(2 * 3600L + 45 * 60, 3 * 3600L + 10 * 60), dropped);
+    }
+}
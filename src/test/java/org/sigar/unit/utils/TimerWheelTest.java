@@ -0,0 +1,75 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.utils.TimerWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testFiresExactlyOnDeadline() {
+        TimerWheel<Long> wheel = new TimerWheel<>(100);
+        wheel.schedule(1L, 101);
+        wheel.schedule(2L, 164);
+        wheel.schedule(3L, 5000);
+
+        assertEquals(List.of(1L), wheel.advanceTo(101));
+        assertEquals(List.of(), wheel.advanceTo(163));
+        assertEquals(List.of(2L), wheel.advanceTo(164));
+        assertEquals(List.of(), wheel.advanceTo(4999));
+        assertEquals(List.of(3L), wheel.advanceTo(5000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextAdvance() {
+        TimerWheel<Long> wheel = new TimerWheel<>(100);
+        wheel.schedule(1L, 90);
+
+        assertEquals(List.of(1L), wheel.advanceTo(100));
+    }
+
+    @Test
+    public void testRescheduleAndCancel() {
+        TimerWheel<Long> wheel = new TimerWheel<>(0);
+        wheel.schedule(1L, 10);
+        wheel.schedule(2L, 10);
+        wheel.schedule(1L, 40);
+
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.cancel(2L));
+        assertEquals(List.of(), wheel.advanceTo(39));
+        assertEquals(List.of(1L), wheel.advanceTo(40));
+    }
+
+    @Test
+    public void testMatchesSortedDeadlinesAcrossAllLevels() {
+        long start = 20_000;
+        TimerWheel<Long> wheel = new TimerWheel<>(start);
+        Random random = new Random(42);
+        long[] deadlines = new long[2000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = start + 1 + random.nextInt(300_000);
+            wheel.schedule((long) i, deadlines[i]);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + 300_000; tick += 1 + random.nextInt(40)) {
+            for (Long key : wheel.advanceTo(tick)) {
+                assertTrue(deadlines[key.intValue()] <= tick);
+                assertTrue(deadlines[key.intValue()] > tick - 41);
+                fired.add(key);
+            }
+        }
+        fired.addAll(wheel.advanceTo(start + 300_001));
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
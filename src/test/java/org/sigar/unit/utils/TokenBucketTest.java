@@ -0,0 +1,80 @@
+package org.sigar.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.sigar.utils.TokenBucket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void testBurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(1, 0));
+        }
+        // Empty now, the next token arrives after 1/10 s
+        assertEquals(SECOND / 10, bucket.tryAcquire(1, 0));
+        assertEquals(0, bucket.tryAcquire(1, SECOND / 10));
+        assertEquals(5.0, bucket.availableTokens(SECOND), 1e-9);
+        assertTrue(bucket.isFull(SECOND));
+    }
+
+    @Test
+    public void testRejectedRequestTakesNothingAndRefundReturnsTokens() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        assertEquals(0, bucket.tryAcquire(8, 0));
+        assertEquals(3 * SECOND, bucket.tryAcquire(5, 0));
+        assertEquals(2.0, bucket.availableTokens(0), 1e-9);
+
+        bucket.refund(8, 0);
+        assertEquals(10.0, bucket.availableTokens(0), 1e-9);
+    }
+
+    @Test
+    public void testMoreTokensThanCapacityAreRefused() {
+        TokenBucket bucket = new TokenBucket(1, 5, 0);
+        // Even a full bucket cannot cover them, and the refusal takes nothing
+        assertEquals(2 * SECOND, bucket.tryAcquire(7, 0));
+        assertTrue(bucket.tryAcquire(7, 100 * SECOND) > 0);
+        assertEquals(5.0, bucket.availableTokens(100 * SECOND), 1e-9);
+        assertEquals(0, bucket.tryAcquire(5, 100 * SECOND));
+    }
+
+    @Test
+    public void testConcurrentCallersNeverOverdraw() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0.001, 1000, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(1, 0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, admitted.get());
+    }
+}